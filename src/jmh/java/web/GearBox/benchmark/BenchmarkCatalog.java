@@ -0,0 +1,57 @@
+package web.GearBox.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import web.GearBox.GearBoxApplication;
+import web.GearBox.support.CatalogSeeder;
+
+// One application context per fork over an in-memory H2 catalog of catalogSize products
+@State(Scope.Benchmark)
+public class BenchmarkCatalog {
+
+    @Param("2000")
+    public int catalogSize;
+
+    @Param("50")
+    public int imageCount;
+
+    ConfigurableApplicationContext context;
+    int[] productIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(GearBoxApplication.class)
+            .web(WebApplicationType.NONE)
+            // Arguments rather than default properties, which application.properties would override
+            .run("--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        productIds = CatalogSeeder.seed(context, catalogSize, imageCount, 42L);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int randomProductId() {
+        return productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+    }
+
+    int randomImageProductId() {
+        return productIds[ThreadLocalRandom.current().nextInt(Math.min(imageCount, productIds.length))];
+    }
+}
@@ -0,0 +1,52 @@
+package web.GearBox.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import web.GearBox.model.CartSummary;
+import web.GearBox.model.SessionCart;
+import web.GearBox.service.CartService;
+
+// What /cart and /checkout do per view: refresh every line, renew holds and total the cart
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CartBenchmark {
+
+    @Param("5")
+    public int lines;
+
+    private CartService cartService;
+    private SessionCart cart;
+    private String sessionId;
+
+    @Setup
+    public void setUp(BenchmarkCatalog catalog) {
+        cartService = catalog.bean(CartService.class);
+        sessionId = UUID.randomUUID().toString();
+        cart = new SessionCart();
+        while (cart.size() < Math.min(lines, catalog.productIds.length)) {
+            cart.put(catalog.randomProductId(), 1 + cart.size(), 1999);
+        }
+    }
+
+    @Benchmark
+    public CartSummary revalidate() {
+        return cartService.revalidate(cart, sessionId);
+    }
+}
@@ -0,0 +1,49 @@
+package web.GearBox.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import web.GearBox.model.SessionCart;
+import web.GearBox.service.CheckoutService;
+
+// The stock decrement transaction behind POST /checkout. Seeded stock is large enough
+// that every invocation succeeds, so this measures the happy path only.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CheckoutBenchmark {
+
+    @Param({"1", "5"})
+    public int lines;
+
+    private CheckoutService checkoutService;
+    private SessionCart cart;
+
+    @Setup
+    public void setUp(BenchmarkCatalog catalog) {
+        checkoutService = catalog.bean(CheckoutService.class);
+        cart = new SessionCart();
+        while (cart.size() < Math.min(lines, catalog.productIds.length)) {
+            cart.put(catalog.randomProductId(), 1, 1999);
+        }
+    }
+
+    @Benchmark
+    public void checkout() {
+        checkoutService.checkout(cart, null);
+    }
+}
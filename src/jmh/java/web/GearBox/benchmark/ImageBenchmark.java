@@ -0,0 +1,71 @@
+package web.GearBox.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import web.GearBox.controller.ProductImageController;
+import web.GearBox.model.ImageSize;
+import web.GearBox.service.ProductImageService;
+
+// getImageByProductId for a full body and for a revalidation that ends in 304
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ImageBenchmark {
+
+    @Param({"original", "thumbnail"})
+    public String size;
+
+    private BenchmarkCatalog catalog;
+    private ProductImageController controller;
+    private String etag;
+    private int etagProductId;
+
+    @Setup
+    public void setUp(BenchmarkCatalog catalog) {
+        this.catalog = catalog;
+        controller = catalog.bean(ProductImageController.class);
+        etagProductId = catalog.productIds[0];
+        etag = "\"" + catalog.bean(ProductImageService.class)
+            .getServedImage(etagProductId, ImageSize.fromParam(size)).info().getContentHash() + "\"";
+    }
+
+    @Benchmark
+    public ResponseEntity<Resource> fullBody() {
+        return get(catalog.randomImageProductId(), null);
+    }
+
+    @Benchmark
+    public ResponseEntity<Resource> notModified() {
+        return get(etagProductId, etag);
+    }
+
+    private ResponseEntity<Resource> get(int productId, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/" + productId + "/image");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return controller.getImageByProductId(productId, size, request,
+            new ServletWebRequest(request, new MockHttpServletResponse()));
+    }
+}
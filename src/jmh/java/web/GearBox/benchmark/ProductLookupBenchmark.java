@@ -0,0 +1,49 @@
+package web.GearBox.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import web.GearBox.model.Product;
+import web.GearBox.repository.ProductRepo;
+import web.GearBox.service.ProductService;
+
+// Product page lookups through the read-through cache versus straight to the repository
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductLookupBenchmark {
+
+    private BenchmarkCatalog catalog;
+    private ProductRepo repo;
+    private ProductService productService;
+
+    @Setup
+    public void setUp(BenchmarkCatalog catalog) {
+        this.catalog = catalog;
+        repo = catalog.bean(ProductRepo.class);
+        productService = catalog.bean(ProductService.class);
+    }
+
+    @Benchmark
+    public Product getProductById() {
+        return productService.getProductById(catalog.randomProductId());
+    }
+
+    @Benchmark
+    public Product repositoryFindById() {
+        return repo.findWithCategoriesById(catalog.randomProductId()).orElse(null);
+    }
+}
@@ -0,0 +1,65 @@
+package web.GearBox.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import web.GearBox.model.Product;
+import web.GearBox.model.ProductSummary;
+import web.GearBox.service.ProductService;
+
+// The original LIKE query, kept here as the baseline now that nothing else runs it, against the in-memory
+// index behind /search
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+    private static final String LIKE_QUERY = "SELECT p FROM Product p WHERE" +
+        " LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR" +
+        " LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR" +
+        " LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%')) OR" +
+        " EXISTS (SELECT c FROM p.categories c WHERE LOWER(c) LIKE LOWER(CONCAT('%', :keyword, '%')))";
+
+    @Param({"wireless", "gaming laptop"})
+    public String keyword;
+
+    private EntityManagerFactory entityManagerFactory;
+    private ProductService productService;
+
+    @Setup
+    public void setUp(BenchmarkCatalog catalog) {
+        entityManagerFactory = catalog.bean(EntityManagerFactory.class);
+        productService = catalog.bean(ProductService.class);
+    }
+
+    @Benchmark
+    public List<Product> likeQuery() {
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            return entityManager.createQuery(LIKE_QUERY, Product.class)
+                .setParameter("keyword", keyword)
+                .getResultList();
+        }
+    }
+
+    @Benchmark
+    public List<ProductSummary> searchIndex() {
+        return productService.searchProducts(keyword);
+    }
+}
@@ -0,0 +1,203 @@
+package web.GearBox.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.LocaleResolver;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+// Load shedding in front of search and product images. Each client (the session it presented, else its address)
+// gets a token bucket per endpoint and is answered 429 once it is spent; on top of that each endpoint has a
+// global cap on requests in flight, answered 503 at once when no slot is free rather than queued, since a
+// waiting request holds a Tomcat thread the rest of the storefront needs. Both carry Retry-After. Behind a
+// proxy set server.forward-headers-strategy so the address is the client's.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Pattern IMAGE_PATH = Pattern.compile("/product/\\d+/image");
+
+    private final Endpoint search;
+    private final Endpoint image;
+    private MessageSource messageSource;
+    private LocaleResolver localeResolver;
+    private MeterRegistry registry;
+    private boolean enabled;
+
+    public AdmissionControlFilter(MessageSource messageSource, LocaleResolver localeResolver, MeterRegistry registry,
+                                  @Value("${gearbox.admission.enabled:true}") boolean enabled,
+                                  @Value("${gearbox.admission.max-clients:100000}") int maxClients,
+                                  @Value("${gearbox.admission.search.rate:5}") double searchRate,
+                                  @Value("${gearbox.admission.search.burst:20}") int searchBurst,
+                                  @Value("${gearbox.admission.search.max-concurrent:3}") int searchConcurrency,
+                                  @Value("${gearbox.admission.search.max-wait:0ms}") Duration searchMaxWait,
+                                  @Value("${gearbox.admission.image.rate:50}") double imageRate,
+                                  @Value("${gearbox.admission.image.burst:200}") int imageBurst,
+                                  @Value("${gearbox.admission.image.max-concurrent:4}") int imageConcurrency,
+                                  @Value("${gearbox.admission.image.max-wait:0ms}") Duration imageMaxWait) {
+        this.messageSource = messageSource;
+        this.localeResolver = localeResolver;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.search = new Endpoint("search", searchRate, searchBurst, searchConcurrency, searchMaxWait, maxClients);
+        this.image = new Endpoint("image", imageRate, imageBurst, imageConcurrency, imageMaxWait, maxClients);
+        for (Endpoint endpoint : new Endpoint[] {search, image}) {
+            Gauge.builder("gearbox.admission.in_flight", endpoint, Endpoint::inFlight)
+                .tag("endpoint", endpoint.name).register(registry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || endpoint(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Endpoint endpoint = endpoint(request);
+        TokenBucket bucket = endpoint.buckets.get(clientKey(request), key -> new TokenBucket(endpoint.rate, endpoint.burst));
+        long waitNanos = bucket.tryTake();
+        if (waitNanos > 0) {
+            count(endpoint, "rate_limited");
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, "admission.rate_limited",
+                Math.max(1, (long) Math.ceil(waitNanos / 1e9)));
+            return;
+        }
+        if (!acquire(endpoint)) {
+            count(endpoint, "overloaded");
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, "admission.overloaded", 1);
+            return;
+        }
+        try {
+            count(endpoint, "admitted");
+            chain.doFilter(request, response);
+        } finally {
+            endpoint.permits.release();
+        }
+    }
+
+    // A max-wait above zero turns the cap into a short queue; the default never waits
+    private static boolean acquire(Endpoint endpoint) {
+        if (endpoint.maxWaitNanos <= 0) {
+            return endpoint.permits.tryAcquire();
+        }
+        try {
+            return endpoint.permits.tryAcquire(endpoint.maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Endpoint endpoint(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return null;
+        }
+        String path = request.getRequestURI();
+        if (path.equals("/search")) {
+            return search;
+        }
+        return IMAGE_PATH.matcher(path).matches() ? image : null;
+    }
+
+    // Only a session the client presented counts, and none is created here: clients without one, crawlers and
+    // clients dropping their cookie to start a fresh session each time included, share their address's bucket
+    private static String clientKey(HttpServletRequest request) {
+        HttpSession session = request.isRequestedSessionIdValid() ? request.getSession(false) : null;
+        return session != null ? "session:" + session.getId() : "address:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String messageCode,
+                        long retryAfterSeconds) throws IOException {
+        String message = messageSource.getMessage(messageCode, null, localeResolver.resolveLocale(request));
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void count(Endpoint endpoint, String result) {
+        registry.counter("gearbox.admission.requests", "endpoint", endpoint.name, "result", result).increment();
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final double rate;
+        private final int burst;
+        private final int maxConcurrent;
+        private final long maxWaitNanos;
+        private final Semaphore permits;
+        // Idle clients are forgotten once their bucket would have refilled anyway
+        private final Cache<String, TokenBucket> buckets;
+
+        private Endpoint(String name, double rate, int burst, int maxConcurrent, Duration maxWait, int maxClients) {
+            this.name = name;
+            this.rate = rate;
+            this.burst = burst;
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaitNanos = maxWait.toNanos();
+            this.permits = new Semaphore(maxConcurrent);
+            this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos((long) Math.ceil(burst / rate * TimeUnit.SECONDS.toNanos(1))))
+                .build();
+        }
+
+        private double inFlight() {
+            return maxConcurrent - permits.availablePermits();
+        }
+    }
+
+    // Refills continuously at rate tokens per second up to burst; a request takes one token
+    private static final class TokenBucket {
+        private final double nanosPerToken;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(double rate, int burst) {
+            this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / rate;
+            this.capacity = burst;
+            this.tokens = burst;
+        }
+
+        // 0 when a token was taken, otherwise the nanoseconds until the next one
+        private synchronized long tryTake() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) / nanosPerToken);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * nanosPerToken);
+        }
+    }
+}
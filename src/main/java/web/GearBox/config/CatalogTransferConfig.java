@@ -0,0 +1,96 @@
+package web.GearBox.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+// Bulk catalog transfers get limits of their own instead of raising the application-wide ones: imports go
+// through a dedicated servlet with large multipart limits, and streamed exports may outlive the default
+// async timeout.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CatalogTransferConfig implements WebMvcConfigurer {
+
+    private static final String LONG_RUNNING_ATTRIBUTE = CatalogTransferConfig.class.getName() + ".longRunning";
+
+    private Duration transferTimeout;
+
+    public CatalogTransferConfig(@Value("${gearbox.catalog.transfer-timeout:30m}") Duration transferTimeout) {
+        this.transferTimeout = transferTimeout;
+    }
+
+    // Called by a handler whose streamed response may take longer than spring.mvc.async.request-timeout
+    public static void allowLongRunning(HttpServletRequest request) {
+        request.setAttribute(LONG_RUNNING_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    @Bean
+    public ServletRegistrationBean<CatalogImportServlet> catalogImportServlet(WebApplicationContext context,
+            @Value("${gearbox.catalog.import.max-file-size:512MB}") DataSize maxFileSize,
+            @Value("${gearbox.catalog.import.max-request-size:1GB}") DataSize maxRequestSize) {
+        MultipartConfigFactory multipart = new MultipartConfigFactory();
+        multipart.setMaxFileSize(maxFileSize);
+        multipart.setMaxRequestSize(maxRequestSize);
+        multipart.setFileSizeThreshold(DataSize.ofBytes(0));
+        ServletRegistrationBean<CatalogImportServlet> registration =
+            new ServletRegistrationBean<>(new CatalogImportServlet(context), "/admin/catalog/import");
+        registration.setName("catalogImport");
+        registration.setMultipartConfig(multipart.createMultipartConfig());
+        return registration;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // Runs before the request goes async, while its timeout can still be changed
+                if (request instanceof AsyncWebRequest asyncRequest
+                        && request.getAttribute(LONG_RUNNING_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+                    asyncRequest.setTimeout(transferTimeout.toMillis());
+                }
+            }
+        });
+    }
+
+    // The same controllers as the main dispatcher, but only POST /admin/catalog/import is mapped here. The admin
+    // check comes before anything reads the body, so an anonymous upload is never spooled to disk.
+    static class CatalogImportServlet extends DispatcherServlet {
+
+        CatalogImportServlet(WebApplicationContext context) {
+            super(context);
+        }
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response)
+                throws ServletException, IOException {
+            HttpSession session = request.getSession(false);
+            if (session == null || !Boolean.TRUE.equals(session.getAttribute("adminLoggedIn"))) {
+                response.sendRedirect(request.getContextPath() + "/admin/login");
+                return;
+            }
+            super.service(request, response);
+        }
+    }
+}
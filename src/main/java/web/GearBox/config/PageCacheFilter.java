@@ -0,0 +1,136 @@
+package web.GearBox.config;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.servlet.support.SessionFlashMapManager;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import web.GearBox.service.PageCache;
+import web.GearBox.service.PageCache.CachedPage;
+
+// Serves catalog pages from PageCache and fills it on a miss. The key is path, query, resolved locale
+// and admin flag; every cached response carries an ETag so browsers revalidate with a 304.
+@Component
+public class PageCacheFilter extends OncePerRequestFilter {
+
+    private static final String PRODUCT_IDS_ATTRIBUTE = PageCacheFilter.class.getName() + ".productIds";
+    private static final String FLASH_MAPS_ATTRIBUTE = SessionFlashMapManager.class.getName() + ".FLASH_MAPS";
+
+    private PageCache pageCache;
+    private LocaleResolver localeResolver;
+    private MeterRegistry registry;
+    private boolean enabled;
+    private Set<String> paths;
+
+    public PageCacheFilter(PageCache pageCache, LocaleResolver localeResolver, MeterRegistry registry,
+                           @Value("${gearbox.page-cache.enabled:true}") boolean enabled,
+                           @Value("${gearbox.page-cache.paths:/,/about_us,/contact_us}") Set<String> paths) {
+        this.pageCache = pageCache;
+        this.localeResolver = localeResolver;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.paths = paths;
+    }
+
+    // Called by handlers of listing pages, so the entry is dropped when one of these products changes
+    public static void recordProducts(HttpServletRequest request, Collection<Integer> productIds) {
+        request.setAttribute(PRODUCT_IDS_ATTRIBUTE, productIds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!cacheable(request)) {
+            count("bypass");
+            chain.doFilter(request, response);
+            return;
+        }
+        Locale locale = localeResolver.resolveLocale(request);
+        String key = key(request, locale);
+        CachedPage cached = pageCache.get(key);
+        if (cached != null) {
+            count("hit");
+            response.setLocale(locale);
+            write(request, response, cached);
+            return;
+        }
+        count("miss");
+        long generation = pageCache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() == HttpStatus.OK.value() && contentType != null && contentType.startsWith("text/html")
+                && !sessionInUrl(request)) {
+            @SuppressWarnings("unchecked")
+            Collection<Integer> productIds = (Collection<Integer>) request.getAttribute(PRODUCT_IDS_ATTRIBUTE);
+            CachedPage page = pageCache.put(key, generation, wrapper.getContentAsByteArray(), contentType, productIds);
+            wrapper.setHeader(HttpHeaders.ETAG, page.etag());
+            wrapper.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            if (new ServletWebRequest(request, wrapper).checkNotModified(page.etag())) {
+                wrapper.resetBuffer();
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    // A locale switch has to reach the LocaleChangeInterceptor, and a pending flash message is per user
+    private static boolean cacheable(HttpServletRequest request) {
+        if (request.getParameter("language") != null) {
+            return false;
+        }
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return true;
+        }
+        Collection<?> flashMaps = (Collection<?>) session.getAttribute(FLASH_MAPS_ATTRIBUTE);
+        return flashMaps == null || flashMaps.isEmpty();
+    }
+
+    // Without a session cookie the container rewrites links with ;jsessionid=, which must never be shared
+    private static boolean sessionInUrl(HttpServletRequest request) {
+        return request.getSession(false) != null && !request.isRequestedSessionIdFromCookie();
+    }
+
+    private static String key(HttpServletRequest request, Locale locale) {
+        HttpSession session = request.getSession(false);
+        boolean admin = session != null && Boolean.TRUE.equals(session.getAttribute("adminLoggedIn"));
+        String query = request.getQueryString();
+        return request.getRequestURI() + (query != null ? "?" + query : "") + "|" + locale.toLanguageTag() + "|" + admin;
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, CachedPage page) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, page.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (new ServletWebRequest(request, response).checkNotModified(page.etag())) {
+            return;
+        }
+        response.setContentType(page.contentType());
+        response.setContentLength(page.body().length);
+        response.getOutputStream().write(page.body());
+    }
+
+    private void count(String result) {
+        registry.counter("gearbox.pages.requests", "result", result).increment();
+    }
+}
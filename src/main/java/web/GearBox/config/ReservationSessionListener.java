@@ -0,0 +1,23 @@
+package web.GearBox.config;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+import web.GearBox.service.StockReservationService;
+
+// Gives back a session's stock holds as soon as the container expires or invalidates it
+@Component
+public class ReservationSessionListener implements HttpSessionListener {
+
+    private StockReservationService reservationService;
+
+    public ReservationSessionListener(StockReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        reservationService.releaseAll(event.getSession().getId());
+    }
+}
@@ -0,0 +1,24 @@
+package web.GearBox.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate hands every SQL string it prepares to this inspector; we only count them, per thread,
+// so SqlStatementMetricsInterceptor can attribute the total to the request that ran them.
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public int current() {
+        return COUNT.get()[0];
+    }
+}
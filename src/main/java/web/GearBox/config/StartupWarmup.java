@@ -0,0 +1,160 @@
+package web.GearBox.config;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletRequest;
+import web.GearBox.model.FacetQuery;
+import web.GearBox.model.ProductPage;
+import web.GearBox.model.ProductSort;
+import web.GearBox.model.ProductSummary;
+import web.GearBox.service.CategoryRegistry;
+import web.GearBox.service.ProductService;
+
+// Optional warm-up before the app reports ready. Runners finish before ApplicationReadyEvent, so the
+// readiness probe only flips once the hot listings are cached and the request paths have been JIT-compiled.
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final String WARMUP_HEADER = "X-GearBox-Warmup";
+    private static final int HOT_PRODUCTS = 24;
+    private static final int SEARCH_TERMS = 10;
+
+    private ProductService productService;
+    private CategoryRegistry categoryRegistry;
+    private ApplicationContext context;
+    private boolean enabled;
+    private int iterations;
+    private Duration maxDuration;
+
+    public StartupWarmup(ProductService productService, CategoryRegistry categoryRegistry, ApplicationContext context,
+                         @Value("${gearbox.warmup.enabled:false}") boolean enabled,
+                         @Value("${gearbox.warmup.iterations:200}") int iterations,
+                         @Value("${gearbox.warmup.max-duration:20s}") Duration maxDuration) {
+        this.productService = productService;
+        this.categoryRegistry = categoryRegistry;
+        this.context = context;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+    }
+
+    // Warm-up page requests are not real visits: they must not count as product views. Only trusted from
+    // the node itself
+    public static boolean isWarmupRequest(HttpServletRequest request) {
+        if (request.getHeader(WARMUP_HEADER) == null) {
+            return false;
+        }
+        try {
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    // Checked here rather than with a condition, which AOT processing would freeze at build time
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+
+        List<FacetQuery> filters = new ArrayList<>();
+        filters.add(FacetQuery.NONE);
+        CategoryRegistry.KEYS.forEach(key -> filters.add(FacetQuery.ofCategories(List.of(key))));
+        ProductPage firstPage = productService.getProductPage(FacetQuery.NONE, ProductSort.ID, null);
+        List<Integer> hotIds = firstPage.getProducts().stream()
+            .limit(HOT_PRODUCTS)
+            .map(ProductSummary::getId)
+            .toList();
+        Set<String> terms = new LinkedHashSet<>();
+        for (ProductSummary product : firstPage.getProducts()) {
+            if (terms.size() >= SEARCH_TERMS) {
+                break;
+            }
+            terms.add(product.getBrand().toLowerCase(Locale.ROOT));
+            terms.add(product.getName().split("\\s+")[0].toLowerCase(Locale.ROOT));
+        }
+
+        int rounds = 0;
+        while (rounds < iterations && System.nanoTime() < deadline) {
+            for (FacetQuery filter : filters) {
+                for (ProductSort sort : ProductSort.values()) {
+                    ProductPage page = productService.getProductPage(filter, sort, null);
+                    if (page.getNextCursor() != null) {
+                        productService.getProductPage(filter, sort, page.getNextCursor());
+                    }
+                }
+            }
+            terms.forEach(productService::searchProducts);
+            hotIds.forEach(productService::getProductById);
+            rounds++;
+        }
+        int pages = requestPages(hotIds, deadline);
+        log.info("Warm-up finished in {} ms: {} service rounds, {} pages served",
+            (System.nanoTime() - started) / 1_000_000, rounds, pages);
+    }
+
+    // Listing pages land in the page cache; product pages are not cached, so they are rendered a few times.
+    // No cookies are kept or sent, and none of these pages creates a session for a visitor without one.
+    private int requestPages(List<Integer> hotIds, long deadline) {
+        if (!(context instanceof WebServerApplicationContext webContext) || webContext.getWebServer() == null) {
+            return 0;
+        }
+        String base = "http://localhost:" + webContext.getWebServer().getPort();
+        List<String> paths = new ArrayList<>(List.of("/", "/?sort=newest", "/about_us", "/contact_us"));
+        for (String label : categoryRegistry.labels(Locale.ENGLISH)) {
+            paths.add("/?category=" + URLEncoder.encode(label, StandardCharsets.UTF_8));
+        }
+        for (int round = 0; round < 5; round++) {
+            hotIds.forEach(id -> paths.add("/product/" + id));
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        int served = 0;
+        for (String path : paths) {
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                    .header(WARMUP_HEADER, "true")
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    served++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.debug("Warm-up request to {} failed", path, e);
+            }
+        }
+        return served;
+    }
+}
@@ -0,0 +1,140 @@
+package web.GearBox.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import web.GearBox.config.CatalogTransferConfig;
+import web.GearBox.model.CatalogFormat;
+import web.GearBox.model.CatalogImportJob;
+import web.GearBox.service.CatalogExportService;
+import web.GearBox.service.CatalogImportService;
+
+@Controller
+public class CatalogTransferController {
+    private CatalogImportService importService;
+    private CatalogExportService exportService;
+    private MessageSource messageSource;
+
+    public CatalogTransferController(CatalogImportService importService, CatalogExportService exportService,
+                                     MessageSource messageSource) {
+        this.importService = importService;
+        this.exportService = exportService;
+        this.messageSource = messageSource;
+    }
+
+    @GetMapping("/admin/catalog")
+    public String showCatalogTransfer(@RequestParam(value = "job", required = false) String jobId,
+                                      Model model, HttpSession session) {
+        if (!isAdminLoggedIn(session)) {
+            return "redirect:/admin/login";
+        }
+        if (jobId != null) {
+            model.addAttribute("job", importService.getJob(jobId));
+        }
+        return "admin_catalog";
+    }
+
+    // Served by CatalogTransferConfig's import servlet with its larger upload limits. Uploads are spooled to
+    // temp files first: the multipart parts are gone once this request returns, and the import runs in the background
+    @PostMapping("/admin/catalog/import")
+    public String importCatalog(@RequestPart("file") MultipartFile file,
+                                @RequestPart(value = "images", required = false) MultipartFile images,
+                                RedirectAttributes redirectAttributes, HttpSession session) {
+        if (!isAdminLoggedIn(session)) {
+            return "redirect:/admin/login";
+        }
+        if (file == null || file.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", message("catalog.import.file_required"));
+            return "redirect:/admin/catalog";
+        }
+        Path data = null;
+        Path archive = null;
+        try {
+            data = Files.createTempFile("gearbox-import-", ".data");
+            file.transferTo(data);
+            if (images != null && !images.isEmpty()) {
+                archive = Files.createTempFile("gearbox-import-", ".zip");
+                images.transferTo(archive);
+            }
+            CatalogImportJob job = importService.submit(CatalogFormat.fromFilename(file.getOriginalFilename()), data, archive);
+            return "redirect:/admin/catalog?job=" + job.getId();
+        } catch (IOException e) {
+            deleteQuietly(data);
+            deleteQuietly(archive);
+            redirectAttributes.addFlashAttribute("error", message("catalog.import.error"));
+        } catch (RejectedExecutionException e) {
+            redirectAttributes.addFlashAttribute("error", message("catalog.import.busy"));
+        }
+        return "redirect:/admin/catalog";
+    }
+
+    @GetMapping("/admin/catalog/import/{jobId}")
+    public ResponseEntity<CatalogImportJob> importStatus(@PathVariable("jobId") String jobId, HttpSession session) {
+        if (!isAdminLoggedIn(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        CatalogImportJob job = importService.getJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/admin/catalog/export")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestParam(value = "format", required = false) String format,
+                                                               HttpServletRequest request, HttpSession session) {
+        if (!isAdminLoggedIn(session)) {
+            return ResponseEntity.status(HttpStatus.FOUND).location(URI.create("/admin/login")).build();
+        }
+        CatalogFormat catalogFormat = CatalogFormat.fromParam(format);
+        if (catalogFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        ContentDisposition disposition = ContentDisposition.attachment()
+            .filename("catalog" + catalogFormat.getExtension())
+            .build();
+        CatalogTransferConfig.allowLongRunning(request);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(catalogFormat.getContentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+            .body(out -> exportService.export(catalogFormat, out));
+    }
+
+    private String message(String code) {
+        return messageSource.getMessage(code, null, LocaleContextHolder.getLocale());
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // Left for the OS to clean up with the rest of the temp directory
+            }
+        }
+    }
+
+    private boolean isAdminLoggedIn(HttpSession session) {
+        return session.getAttribute("adminLoggedIn") != null && (boolean) session.getAttribute("adminLoggedIn");
+    }
+}
@@ -1,77 +1,149 @@
 package web.GearBox.controller;
 
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
-import web.GearBox.model.CartItem;
+import web.GearBox.config.CatalogTransferConfig;
+import web.GearBox.config.PageCacheFilter;
+import web.GearBox.config.StartupWarmup;
+import web.GearBox.model.AdminProductQuery;
+import web.GearBox.model.AdminProductSort;
+import web.GearBox.model.CartSummary;
+import web.GearBox.model.FacetQuery;
+import web.GearBox.model.ImageUpload;
+import web.GearBox.model.PriceRange;
 import web.GearBox.model.Product;
+import web.GearBox.model.ProductPage;
+import web.GearBox.model.ProductSort;
+import web.GearBox.model.ProductSummary;
+import web.GearBox.model.ReleaseWindow;
+import web.GearBox.model.SessionCart;
+import web.GearBox.model.Suggestion;
+import web.GearBox.service.AdminCatalogService;
+import web.GearBox.service.CartService;
+import web.GearBox.service.CategoryRegistry;
+import web.GearBox.service.CheckoutService;
+import web.GearBox.service.ImageRejectedException;
+import web.GearBox.service.InsufficientStockException;
 import web.GearBox.service.ProductService;
+import web.GearBox.service.StockReservationService;
 import web.GearBox.validation.LoginForm;
 
 @Controller
 @RequestMapping("/")
 public class ProductController {
     private ProductService service;
+    private CartService cartService;
+    private CheckoutService checkoutService;
+    private StockReservationService reservationService;
+    private CategoryRegistry categoryRegistry;
+    private AdminCatalogService adminCatalogService;
     private MessageSource messageSource;
 
-    public ProductController(ProductService service, MessageSource messageSource) {
+    public ProductController(ProductService service, CartService cartService, CheckoutService checkoutService,
+                             StockReservationService reservationService, CategoryRegistry categoryRegistry,
+                             AdminCatalogService adminCatalogService, MessageSource messageSource) {
         this.service = service;
+        this.cartService = cartService;
+        this.checkoutService = checkoutService;
+        this.reservationService = reservationService;
+        this.categoryRegistry = categoryRegistry;
+        this.adminCatalogService = adminCatalogService;
         this.messageSource = messageSource;
     }
 
     private static final String ADMIN_USERNAME = "admin";
     private static final String ADMIN_PASSWORD = "admin123";
-    
- // Define category keys
-    private static final String[] CATEGORY_KEYS = {
-        "category.laptop", "category.headphone", "category.mobile",
-        "category.electronics", "category.toys", "category.fashion"
-    };
-    
- // Method to get translated categories
-    private List<String> getTranslatedCategories() {
-        List<String> translatedCategories = new ArrayList<>();
-        for (String key : CATEGORY_KEYS) {
-            String translatedCategory = messageSource.getMessage(key, null, LocaleContextHolder.getLocale());
-            translatedCategories.add(translatedCategory);
+
+    private static final int MAX_SUGGESTIONS = 20;
+    // Typeahead fires on every keystroke; a short private cache absorbs retyped and backspaced prefixes
+    private static final CacheControl SUGGEST_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate();
+
+    // Oversized or non-image uploads become field errors; the part is read in chunks, never as one array
+    private ImageUpload stageImage(MultipartFile imageFile, BindingResult result) {
+        try {
+            return service.stageImage(imageFile);
+        } catch (ImageRejectedException e) {
+            result.rejectValue("imageName", e.getReason().getMessageCode(),
+                new Object[] {formatSize(e.getMaxSize())}, e.getMessage());
+        } catch (IOException e) {
+            result.rejectValue("imageName", "product.image.upload_failed", "The image could not be read");
         }
-        return translatedCategories;
+        return null;
     }
 
-    @GetMapping("")
-    public String getHomePage(Model model, @RequestParam(required = false) String category) {
-        List<Product> products = service.getAllProducts();
-        if (category != null && !category.isEmpty()) {
-            // Use translated category for filtering.
-            String translatedCategory = category;
-            // Map the input category back to the English key for filtering
-            for (String key : CATEGORY_KEYS) {
-                String transCategory = messageSource.getMessage(key, null, LocaleContextHolder.getLocale());
-                if (transCategory.equals(category)) {
-                    // Map to English category name for filtering
-                    translatedCategory = key.replace("category.", "");
-                    break;
-                }
+    private static String formatSize(long bytes) {
+        return bytes >= 1024 * 1024 ? bytes / (1024 * 1024) + " MB" : bytes / 1024 + " KB";
+    }
+
+    // Translated category labels for the current locale
+    private List<String> getTranslatedCategories() {
+        return categoryRegistry.labels(LocaleContextHolder.getLocale());
+    }
+
+    // Map translated categories back to their English keys
+    private List<String> toCategoryKeys(List<String> labels) {
+        List<String> keys = new ArrayList<>(labels.size());
+        for (String label : labels) {
+            if (label != null && !label.isEmpty()) {
+                keys.add(categoryRegistry.keyFor(label, LocaleContextHolder.getLocale()));
             }
-            String finalCategory = translatedCategory;
-            products = products.stream()
-                .filter(p -> p.getCategories() != null && p.getCategories().contains(finalCategory))
-                .collect(Collectors.toList());
         }
-        model.addAttribute("products", products);
+        return keys;
+    }
+
+    @GetMapping("")
+    public String getHomePage(Model model, @RequestParam(required = false) List<String> category,
+                              @RequestParam(required = false) List<String> brand,
+                              @RequestParam(required = false) String price,
+                              @RequestParam(required = false) boolean inStock,
+                              @RequestParam(required = false) String released,
+                              @RequestParam(required = false) String sort,
+                              @RequestParam(required = false) String cursor, HttpServletRequest request) {
+        // Repeating ?category= narrows the listing to products in all of the given categories, repeated ?brand= widens it
+        List<String> categoryKeys = category != null ? toCategoryKeys(category) : List.of();
+        FacetQuery query = new FacetQuery(categoryKeys, brand != null ? brand : List.of(), PriceRange.fromParam(price),
+            inStock, ReleaseWindow.fromParam(released));
+        ProductSort productSort = ProductSort.fromParam(sort);
+        ProductPage page = service.getProductPage(query, productSort, cursor);
+        PageCacheFilter.recordProducts(request, page.getProducts().stream().map(ProductSummary::getId).toList());
+        Map<String, String> categoryLabels = new LinkedHashMap<>();
+        CategoryRegistry.KEYS.forEach(key -> categoryLabels.put(key, categoryRegistry.label(key, LocaleContextHolder.getLocale())));
+        model.addAttribute("products", page.getProducts());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("facets", page.getFacets());
+        model.addAttribute("query", query);
+        model.addAttribute("categoryLabels", categoryLabels);
+        model.addAttribute("priceRanges", PriceRange.values());
+        model.addAttribute("releaseWindows", ReleaseWindow.values());
+        model.addAttribute("category", category);
+        model.addAttribute("sort", productSort.getParam());
         model.addAttribute("categories", getTranslatedCategories());
         return "home";
     }
@@ -89,11 +161,18 @@ public class ProductController {
     }
 
     @GetMapping("/product/{prodid}")
-    public String getProductById(@PathVariable("prodid") int prodid, Model model, HttpSession session) {
+    public String getProductById(@PathVariable("prodid") int prodid, Model model, HttpServletRequest request) {
         Product product = service.getProductById(prodid);
         if (product != null) {
+            if (!StartupWarmup.isWarmupRequest(request)) {
+                service.recordProductView(prodid);
+            }
             model.addAttribute("product", product);
-            model.addAttribute("isAdmin", isAdminLoggedIn(session));
+            model.addAttribute("availableStock",
+                reservationService.availableStock(product.getId(), product.getStockQuantity()));
+            // Looked up without creating a session, so anonymous visitors and the warm-up get none here
+            HttpSession session = request.getSession(false);
+            model.addAttribute("isAdmin", session != null && isAdminLoggedIn(session));
             return "product";
         }
         return "redirect:/";
@@ -116,31 +195,22 @@ public class ProductController {
             return "redirect:/admin/login";
         }
         // Custom validation for imageFile
+        ImageUpload image = null;
         if (imageFile == null || imageFile.isEmpty()) {
             result.rejectValue("imageName", "product.image.notnull", "Image is required");
+        } else {
+            image = stageImage(imageFile, result);
         }
-        if (product.getCategories() == null || product.getCategories().isEmpty()) {
-            result.rejectValue("categories", "product.categories.notnull", "At least one category is required");
-        }
-        if (result.hasErrors()) {
-            model.addAttribute("categories", getTranslatedCategories());
-            return "add_product";
-        }
-        try {
-            // Map translated categories back to English keys
-            List<String> englishCategories = product.getCategories().stream()
-                .map(transCategory -> {
-                    for (String key : CATEGORY_KEYS) {
-                        String trans = messageSource.getMessage(key, null, LocaleContextHolder.getLocale());
-                        if (trans.equals(transCategory)) {
-                            return key.replace("category.", "");
-                        }
-                    }
-                    return transCategory; // Fallback
-                })
-                .collect(Collectors.toList());
-            product.setCategories(englishCategories);
-            service.addProduct(product, imageFile);
+        try (ImageUpload staged = image) {
+            if (product.getCategories() == null || product.getCategories().isEmpty()) {
+                result.rejectValue("categories", "product.categories.notnull", "At least one category is required");
+            }
+            if (result.hasErrors()) {
+                model.addAttribute("categories", getTranslatedCategories());
+                return "add_product";
+            }
+            product.setCategories(toCategoryKeys(product.getCategories()));
+            service.addProduct(product, staged);
             model.addAttribute("message", messageSource.getMessage("product.add.success", null, LocaleContextHolder.getLocale()));
             return "redirect:/admin";
         } catch (Exception e) {
@@ -150,13 +220,6 @@ public class ProductController {
         }
     }
 
-    @GetMapping("/product/{productId}/image")
-    @ResponseBody
-    public byte[] getImageByProductId(@PathVariable("productId") int productId) {
-        Product product = service.getProductById(productId);
-        return product != null ? product.getImageData() : null;
-    }
-
     @GetMapping("/product/update/{id}")
     public String showUpdateForm(@PathVariable("id") int id, Model model, HttpSession session) {
         if (!isAdminLoggedIn(session)) {
@@ -166,7 +229,7 @@ public class ProductController {
         if (product != null) {
             // Translate stored categories to current locale
             List<String> translatedCategories = product.getCategories().stream()
-                .map(category -> messageSource.getMessage("category." + category, null, category, LocaleContextHolder.getLocale()))
+                .map(category -> categoryRegistry.label(category, LocaleContextHolder.getLocale()))
                 .collect(Collectors.toList());
             product.setCategories(translatedCategories);
             model.addAttribute("product", product);
@@ -183,31 +246,22 @@ public class ProductController {
             return "redirect:/admin/login";
         }
         // Custom validation for imageFile
+        ImageUpload image = null;
         if (imageFile == null || imageFile.isEmpty()) {
             result.rejectValue("imageName", "product.image.notnull", "Image is required");
+        } else {
+            image = stageImage(imageFile, result);
         }
-        if (product.getCategories() == null || product.getCategories().isEmpty()) {
-            result.rejectValue("categories", "product.categories.notnull", "At least one category is required");
-        }
-        if (result.hasErrors()) {
-            model.addAttribute("categories", getTranslatedCategories());
-            return "update_product";
-        }
-        try {
-            // Map translated categories back to English keys
-            List<String> englishCategories = product.getCategories().stream()
-                .map(transCategory -> {
-                    for (String key : CATEGORY_KEYS) {
-                        String trans = messageSource.getMessage(key, null, LocaleContextHolder.getLocale());
-                        if (trans.equals(transCategory)) {
-                            return key.replace("category.", "");
-                        }
-                    }
-                    return transCategory; // Fallback
-                })
-                .collect(Collectors.toList());
-            product.setCategories(englishCategories);
-            Product updated = service.updateProduct(id, product, imageFile);
+        try (ImageUpload staged = image) {
+            if (product.getCategories() == null || product.getCategories().isEmpty()) {
+                result.rejectValue("categories", "product.categories.notnull", "At least one category is required");
+            }
+            if (result.hasErrors()) {
+                model.addAttribute("categories", getTranslatedCategories());
+                return "update_product";
+            }
+            product.setCategories(toCategoryKeys(product.getCategories()));
+            Product updated = service.updateProduct(id, product, staged);
             if (updated != null) {
                 model.addAttribute("message", messageSource.getMessage("product.update.success", null, LocaleContextHolder.getLocale()));
                 return "redirect:/admin";
@@ -239,76 +293,47 @@ public class ProductController {
 
     @GetMapping("/search")
     public String searchProducts(@RequestParam(required = false) String keyword, Model model) {
-        List<Product> products = keyword != null && !keyword.isEmpty() 
-            ? service.searchProducts(keyword) 
-            : service.getAllProducts();
+        List<ProductSummary> products = keyword != null && !keyword.isEmpty()
+            ? service.searchProducts(keyword)
+            : service.getProductPage(FacetQuery.NONE, ProductSort.ID, null).getProducts();
         model.addAttribute("searchResults", products);
         model.addAttribute("keyword", keyword);
         model.addAttribute("categories", getTranslatedCategories());
         return "navbar";
     }
 
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam(value = "q", required = false) String text,
+                                                    @RequestParam(value = "limit", defaultValue = "8") int limit) {
+        List<Suggestion> suggestions = text != null
+            ? service.suggest(text, LocaleContextHolder.getLocale(), Math.min(limit, MAX_SUGGESTIONS))
+            : List.of();
+        return ResponseEntity.ok().cacheControl(SUGGEST_CACHE_CONTROL).body(suggestions);
+    }
+
     @GetMapping("/cart")
     public String showCart(HttpSession session, Model model) {
-        String cartAttribute = isAdminLoggedIn(session) ? "adminCart" : "cart";
-        List<CartItem> cartItems = (List<CartItem>) session.getAttribute(cartAttribute);
-        if (cartItems == null) {
-            cartItems = new ArrayList<>();
-            session.setAttribute(cartAttribute, cartItems);
+        SessionCart cart = getCart(session);
+        CartSummary summary = cartService.revalidate(cart, session.getId());
+        if (summary.isMissingProducts()) {
+            model.addAttribute("error", messageSource.getMessage("cart.product.notfound", null, LocaleContextHolder.getLocale()));
         }
-        cartItems = cartItems.stream()
-            .filter(item -> {
-                if (item == null || item.getProduct() == null) {
-                    model.addAttribute("error", messageSource.getMessage("cart.product.invalid", null, LocaleContextHolder.getLocale()));
-                    return false;
-                }
-                Product dbProduct = service.getProductById(item.getProduct().getId());
-                if (dbProduct == null) {
-                    model.addAttribute("error", messageSource.getMessage("cart.product.notfound", null, LocaleContextHolder.getLocale()));
-                    return false;
-                }
-                item.setProduct(dbProduct);
-                if (item.getQuantity() > dbProduct.getStockQuantity()) {
-                    item.setQuantity(dbProduct.getStockQuantity());
-                }
-                return item.getQuantity() > 0;
-            })
-            .collect(Collectors.toList());
-        BigDecimal totalPrice = cartItems.stream()
-            .map(CartItem::getTotalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        session.setAttribute(cartAttribute, cartItems);
-        model.addAttribute("cartItems", cartItems);
-        model.addAttribute("totalPrice", totalPrice);
+        session.setAttribute(cartAttribute(session), cart);
+        model.addAttribute("cartItems", summary.getItems());
+        model.addAttribute("totalPrice", summary.getTotalPrice());
         model.addAttribute("categories", getTranslatedCategories());
         return "cart";
     }
 
     @PostMapping("/cart/add")
     public String addToCart(@RequestParam("productId") int productId, HttpSession session, Model model) {
-        String cartAttribute = isAdminLoggedIn(session) ? "adminCart" : "cart";
-        List<CartItem> cartItems = (List<CartItem>) session.getAttribute(cartAttribute);
-        if (cartItems == null) {
-            cartItems = new ArrayList<>();
-            session.setAttribute(cartAttribute, cartItems);
-        }
+        SessionCart cart = getCart(session);
         Product product = service.getProductById(productId);
         if (product != null && product.getStockQuantity() > 0) {
-            CartItem existingItem = cartItems.stream()
-                .filter(item -> item.getProductId() == productId)
-                .findFirst()
-                .orElse(null);
-            if (existingItem != null) {
-                int newQuantity = existingItem.getQuantity() + 1;
-                if (newQuantity <= product.getStockQuantity()) {
-                    existingItem.setQuantity(newQuantity);
-                } else {
-                    existingItem.setQuantity(product.getStockQuantity());
-                }
-            } else {
-                cartItems.add(new CartItem(product, Math.min(1, product.getStockQuantity())));
-            }
-            session.setAttribute(cartAttribute, cartItems);
+            int requested = cart.quantityOf(productId) + 1;
+            int held = reservationService.reserve(session.getId(), productId, requested, product.getStockQuantity());
+            cart.put(productId, held, SessionCart.toMinorUnits(product.getPrice()));
+            session.setAttribute(cartAttribute(session), cart);
         } else {
             model.addAttribute("error", messageSource.getMessage("cart.product.notfound", null, LocaleContextHolder.getLocale()));
         }
@@ -319,27 +344,21 @@ public class ProductController {
     public String updateCart(@RequestParam("itemId") int itemId, 
                              @RequestParam("action") String action, 
                              HttpSession session) {
-        String cartAttribute = isAdminLoggedIn(session) ? "adminCart" : "cart";
-        List<CartItem> cartItems = (List<CartItem>) session.getAttribute(cartAttribute);
-        if (cartItems != null) {
-            CartItem cartItem = cartItems.stream()
-                .filter(item -> item.getProductId() == itemId)
-                .findFirst()
-                .orElse(null);
-            if (cartItem != null) {
-                Product dbProduct = service.getProductById(itemId);
-                if (dbProduct != null) {
-                    int currentQty = cartItem.getQuantity();
-                    if ("increase".equals(action) && currentQty < dbProduct.getStockQuantity()) {
-                        cartItem.setQuantity(currentQty + 1);
-                    } else if ("increase".equals(action)) {
-                        cartItem.setQuantity(dbProduct.getStockQuantity());
-                    } else if ("decrease".equals(action) && currentQty > 1) {
-                        cartItem.setQuantity(currentQty - 1);
-                    }
-                    cartItem.setProduct(dbProduct);
-                    session.setAttribute(cartAttribute, cartItems);
+        SessionCart cart = getCart(session);
+        int currentQty = cart.quantityOf(itemId);
+        if (currentQty > 0) {
+            Product dbProduct = service.getProductById(itemId);
+            if (dbProduct != null) {
+                int requested = currentQty;
+                if ("increase".equals(action)) {
+                    requested = currentQty + 1;
+                } else if ("decrease".equals(action) && currentQty > 1) {
+                    requested = currentQty - 1;
                 }
+                // Re-reserving also renews the hold's TTL and clamps to stock other carts have not taken
+                int held = reservationService.reserve(session.getId(), itemId, requested, dbProduct.getStockQuantity());
+                cart.put(itemId, held, SessionCart.toMinorUnits(dbProduct.getPrice()));
+                session.setAttribute(cartAttribute(session), cart);
             }
         }
         return "redirect:/cart";
@@ -347,70 +366,42 @@ public class ProductController {
 
     @PostMapping("/cart/remove")
     public String removeFromCart(@RequestParam("itemId") int itemId, HttpSession session) {
-        String cartAttribute = isAdminLoggedIn(session) ? "adminCart" : "cart";
-        List<CartItem> cartItems = (List<CartItem>) session.getAttribute(cartAttribute);
-        if (cartItems != null) {
-            cartItems.removeIf(item -> item.getProductId() == itemId);
-            session.setAttribute(cartAttribute, cartItems);
+        SessionCart cart = getCart(session);
+        if (cart.remove(itemId)) {
+            reservationService.release(session.getId(), itemId);
+            session.setAttribute(cartAttribute(session), cart);
         }
         return "redirect:/cart";
     }
 
     @GetMapping("/checkout")
     public String showCheckout(HttpSession session, Model model) {
-        String cartAttribute = isAdminLoggedIn(session) ? "adminCart" : "cart";
-        List<CartItem> cartItems = (List<CartItem>) session.getAttribute(cartAttribute);
-        if (cartItems == null || cartItems.isEmpty()) {
+        SessionCart cart = getCart(session);
+        if (cart.isEmpty()) {
             return "redirect:/cart";
         }
-        cartItems = cartItems.stream()
-            .filter(item -> {
-                if (item == null || item.getProduct() == null) return false;
-                Product dbProduct = service.getProductById(item.getProduct().getId());
-                if (dbProduct == null) return false;
-                item.setProduct(dbProduct);
-                if (item.getQuantity() > dbProduct.getStockQuantity()) {
-                    item.setQuantity(dbProduct.getStockQuantity());
-                }
-                return item.getQuantity() > 0;
-            })
-            .collect(Collectors.toList());
-        BigDecimal totalPrice = cartItems.stream()
-            .map(CartItem::getTotalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        session.setAttribute(cartAttribute, cartItems);
-        model.addAttribute("cartItems", cartItems);
-        model.addAttribute("totalPrice", totalPrice);
+        CartSummary summary = cartService.revalidate(cart, session.getId());
+        session.setAttribute(cartAttribute(session), cart);
+        model.addAttribute("cartItems", summary.getItems());
+        model.addAttribute("totalPrice", summary.getTotalPrice());
         model.addAttribute("categories", getTranslatedCategories());
         return "checkout";
     }
 
     @PostMapping("/checkout")
     public String processCheckout(HttpSession session, Model model) {
-        String cartAttribute = isAdminLoggedIn(session) ? "adminCart" : "cart";
-        List<CartItem> cartItems = (List<CartItem>) session.getAttribute(cartAttribute);
-        if (cartItems != null && !cartItems.isEmpty()) {
+        SessionCart cart = getCart(session);
+        if (!cart.isEmpty()) {
             try {
-                for (CartItem cartItem : cartItems) {
-                    Product dbProduct = service.getProductById(cartItem.getProductId());
-                    if (dbProduct != null) {
-                        int newStock = dbProduct.getStockQuantity() - cartItem.getQuantity();
-                        if (newStock >= 0) {
-                            dbProduct.setStockQuantity(newStock);
-                                          
-                                           
-                            service.updateProduct(dbProduct.getId(), dbProduct, null);
-                        } else {
-                            model.addAttribute("error", messageSource.getMessage("cart.stock.insufficient", 
-                                new Object[]{dbProduct.getName()}, LocaleContextHolder.getLocale()));
-                            return "redirect:/checkout";
-                        }
-                    }
-                }
-                session.removeAttribute(cartAttribute);
+                checkoutService.checkout(cart, session.getId());
+                session.removeAttribute(cartAttribute(session));
                 model.addAttribute("message", messageSource.getMessage("checkout.success", null, LocaleContextHolder.getLocale()));
                 return "redirect:/";
-            } catch (IOException e) {
+            } catch (InsufficientStockException e) {
+                model.addAttribute("error", messageSource.getMessage("cart.stock.insufficient",
+                    new Object[]{e.getProductName()}, LocaleContextHolder.getLocale()));
+                return "redirect:/checkout";
+            } catch (DataAccessException e) {
                 model.addAttribute("error", messageSource.getMessage("checkout.error", null, LocaleContextHolder.getLocale()));
                 return "redirect:/checkout";
             }
@@ -420,8 +411,11 @@ public class ProductController {
 
     @GetMapping("/clear-cart")
     public String clearCart(HttpSession session) {
-        String cartAttribute = isAdminLoggedIn(session) ? "adminCart" : "cart";
-        session.removeAttribute(cartAttribute);
+        SessionCart cart = getCart(session);
+        for (int i = 0; i < cart.size(); i++) {
+            reservationService.release(session.getId(), cart.getProductId(i));
+        }
+        session.removeAttribute(cartAttribute(session));
         return "redirect:/cart";
     }
 
@@ -452,21 +446,65 @@ public class ProductController {
     }
 
     @GetMapping("/admin")
-    public String showAdminDashboard(Model model, HttpSession session) {
+    public String showAdminDashboard(@RequestParam(value = "sort", required = false) String sort,
+                                     @RequestParam(value = "dir", required = false) String dir,
+                                     @RequestParam(value = "lowStock", defaultValue = "false") boolean lowStock,
+                                     @RequestParam(value = "unavailable", defaultValue = "false") boolean unavailable,
+                                     @RequestParam(value = "page", defaultValue = "0") int page,
+                                     Model model, HttpSession session) {
         if (!isAdminLoggedIn(session)) {
             return "redirect:/admin/login";
         }
-        List<Product> products = service.getAllProducts();
-        model.addAttribute("products", products);
+        AdminProductQuery query = new AdminProductQuery(AdminProductSort.fromParam(sort), "desc".equalsIgnoreCase(dir),
+            lowStock, unavailable);
+        Page<ProductSummary> productPage = adminCatalogService.getPage(query, page);
+        model.addAttribute("products", productPage.getContent());
+        model.addAttribute("productPage", productPage);
+        model.addAttribute("categoriesById", adminCatalogService.categoriesOf(productPage.getContent()));
+        model.addAttribute("query", query);
+        model.addAttribute("lowStockThreshold", adminCatalogService.getLowStockThreshold());
         return "admin";
     }
 
+    // The admin table as CSV with the same sort and filters, streamed without building the list in memory
+    @GetMapping("/admin/products.csv")
+    public ResponseEntity<StreamingResponseBody> downloadAdminProducts(
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "dir", required = false) String dir,
+            @RequestParam(value = "lowStock", defaultValue = "false") boolean lowStock,
+            @RequestParam(value = "unavailable", defaultValue = "false") boolean unavailable,
+            HttpServletRequest request, HttpSession session) {
+        if (!isAdminLoggedIn(session)) {
+            return ResponseEntity.status(HttpStatus.FOUND).location(URI.create("/admin/login")).build();
+        }
+        AdminProductQuery query = new AdminProductQuery(AdminProductSort.fromParam(sort), "desc".equalsIgnoreCase(dir),
+            lowStock, unavailable);
+        CatalogTransferConfig.allowLongRunning(request);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/csv;charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("products.csv").build().toString())
+            .body(out -> adminCatalogService.writeCsv(query, out));
+    }
+
     @GetMapping("/admin/logout")
     public String adminLogout(HttpSession session) {
         session.removeAttribute("adminLoggedIn");
         return "redirect:/";
     }
 
+    private String cartAttribute(HttpSession session) {
+        return isAdminLoggedIn(session) ? "adminCart" : "cart";
+    }
+
+    private SessionCart getCart(HttpSession session) {
+        SessionCart cart = (SessionCart) session.getAttribute(cartAttribute(session));
+        if (cart == null) {
+            cart = new SessionCart();
+            session.setAttribute(cartAttribute(session), cart);
+        }
+        return cart;
+    }
+
     private boolean isAdminLoggedIn(HttpSession session) {
         return session.getAttribute("adminLoggedIn") != null && (boolean) session.getAttribute("adminLoggedIn");
     }
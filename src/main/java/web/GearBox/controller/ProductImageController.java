@@ -0,0 +1,108 @@
+package web.GearBox.controller;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import web.GearBox.model.ImageSize;
+import web.GearBox.model.ProductImageInfo;
+import web.GearBox.service.ProductImageService;
+import web.GearBox.service.ProductImageService.ServedImage;
+
+@Controller
+public class ProductImageController {
+    private ProductImageService imageService;
+    private MeterRegistry registry;
+
+    public ProductImageController(ProductImageService imageService, MeterRegistry registry) {
+        this.imageService = imageService;
+        this.registry = registry;
+    }
+
+    private static final CacheControl IMAGE_CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+    // The original standing in for a derivative that does not exist (yet): revalidated on every use, so clients
+    // switch to the derivative, a new ETag, as soon as it exists instead of keeping the original for an hour
+    private static final CacheControl FALLBACK_CACHE_CONTROL = CacheControl.noCache();
+
+    // Tomcat request attributes for handing a file to the connector's sendfile
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Returning a Resource lets Spring answer Range requests with 206 partial content
+    @GetMapping("/product/{productId}/image")
+    public ResponseEntity<Resource> getImageByProductId(@PathVariable("productId") int productId,
+            @RequestParam(value = "size", required = false) String size,
+            HttpServletRequest request, ServletWebRequest webRequest) {
+        ImageSize imageSize = ImageSize.fromParam(size);
+        if (imageSize == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        ServedImage served = imageService.getServedImage(productId, imageSize);
+        if (served == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ProductImageInfo info = served.info();
+        CacheControl cacheControl = served.fallback() ? FALLBACK_CACHE_CONTROL : IMAGE_CACHE_CONTROL;
+        String etag = "\"" + info.getContentHash() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        Resource resource = imageService.getImageResource(info);
+        if (resource == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Counter.builder("gearbox.images.served.bytes")
+            .baseUnit("bytes")
+            .tag("size", imageSize.name().toLowerCase())
+            .register(registry)
+            .increment(info.getContentLength());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(mediaType(info.getContentType()))
+            .eTag(etag)
+            .cacheControl(cacheControl);
+        if (request.getHeader(HttpHeaders.RANGE) == null && sendFile(request, resource, info.getContentLength())) {
+            // Tomcat writes the file straight from the page cache to the socket once the handler returns
+            return response.contentLength(info.getContentLength()).build();
+        }
+        return response.body(resource);
+    }
+
+    private static boolean sendFile(HttpServletRequest request, Resource resource, long length) {
+        if (!"GET".equals(request.getMethod()) || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))
+                || !resource.isFile()) {
+            return false;
+        }
+        try {
+            request.setAttribute(SENDFILE_FILENAME, resource.getFile().getCanonicalPath());
+        } catch (IOException e) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, length);
+        return true;
+    }
+
+    private static MediaType mediaType(String contentType) {
+        try {
+            return contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
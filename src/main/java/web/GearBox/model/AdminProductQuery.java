@@ -0,0 +1,5 @@
+package web.GearBox.model;
+
+// Sort and filters of the admin product table, shared by the paged view and its CSV download
+public record AdminProductQuery(AdminProductSort sort, boolean descending, boolean lowStock, boolean unavailable) {
+}
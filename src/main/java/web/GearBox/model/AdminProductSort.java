@@ -0,0 +1,34 @@
+package web.GearBox.model;
+
+public enum AdminProductSort {
+    ID("id", "id"),
+    NAME("name", "name"),
+    PRICE("price", "price"),
+    STOCK("stock", "stockQuantity"),
+    RELEASE_DATE("released", "releaseDate");
+
+    private final String param;
+    private final String property;
+
+    AdminProductSort(String param, String property) {
+        this.param = param;
+        this.property = property;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static AdminProductSort fromParam(String value) {
+        for (AdminProductSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        return ID;
+    }
+}
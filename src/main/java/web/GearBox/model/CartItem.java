@@ -2,49 +2,38 @@ package web.GearBox.model;
 
 import java.math.BigDecimal;
 
+// Render-time view of one SessionCart line; built per request and never stored in the session
 public class CartItem {
-    private Product product;
-    private int quantity;
-    private BigDecimal totalPrice; //New field to store the calculated total price
+    private final Product product;
+    private final int quantity;
+    private final BigDecimal unitPrice;
+    private final BigDecimal totalPrice;
 
-    public CartItem(Product product, int quantity) {
+    public CartItem(Product product, int quantity, long unitPriceMinor) {
         this.product = product;
         this.quantity = quantity;
-        this.calculateTotalPrice();
+        this.unitPrice = SessionCart.fromMinorUnits(unitPriceMinor);
+        this.totalPrice = SessionCart.fromMinorUnits(unitPriceMinor * quantity);
     }
 
     public Product getProduct() {
         return product;
     }
 
-    public void setProduct(Product product) {
-        this.product = product;
-        this.calculateTotalPrice();
-    }
-
     public int getQuantity() {
         return quantity;
     }
 
-    public void setQuantity(int quantity) {
-        this.quantity = quantity;
-        this.calculateTotalPrice();
-    }
-
     public int getProductId() {
         return product != null ? product.getId() : -1;
     }
 
-    public BigDecimal getTotalPrice() {
-        return totalPrice;
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
     }
 
-    private void calculateTotalPrice() {
-        if (product != null && product.getPrice() != null) {
-            this.totalPrice = product.getPrice().multiply(BigDecimal.valueOf(quantity));
-        } else {
-            this.totalPrice = BigDecimal.ZERO;
-        }
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
     }
 
     @Override
@@ -55,4 +44,4 @@ public class CartItem {
                ", totalPrice=" + totalPrice +
                '}';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package web.GearBox.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of revalidating a session cart against the catalog, rendered by both cart and checkout
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummary {
+
+    private List<CartItem> items;
+
+    private BigDecimal totalPrice;
+
+    // At least one product was deleted from the catalog since it was added
+    private boolean missingProducts;
+}
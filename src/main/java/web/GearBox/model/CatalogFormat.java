@@ -0,0 +1,41 @@
+package web.GearBox.model;
+
+public enum CatalogFormat {
+    CSV("text/csv", ".csv"),
+    // JSON Lines: one product object per line
+    JSONL("application/x-ndjson", ".jsonl");
+
+    private final String contentType;
+    private final String extension;
+
+    CatalogFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static CatalogFormat fromParam(String value) {
+        if (value == null || value.isEmpty()) {
+            return CSV;
+        }
+        for (CatalogFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    // Uploads are told apart by extension; anything that is not JSON Lines is read as CSV
+    public static CatalogFormat fromFilename(String filename) {
+        String name = filename != null ? filename.toLowerCase() : "";
+        return name.endsWith(".jsonl") || name.endsWith(".ndjson") ? JSONL : CSV;
+    }
+}
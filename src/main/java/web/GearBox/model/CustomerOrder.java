@@ -0,0 +1,42 @@
+package web.GearBox.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.hibernate.annotations.BatchSize;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A completed checkout. The id is assigned at checkout, so the order is known before the
+// background writer has persisted it; amounts are in minor units like the session cart.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_customer_order_session", columnList = "session_id, created_at"))
+public class CustomerOrder {
+
+    @Id
+    private String id;
+
+    private String sessionId;
+
+    private Instant createdAt;
+
+    private int itemCount;
+
+    private long totalMinor;
+
+    @OneToMany
+    @JoinColumn(name = "order_id")
+    @BatchSize(size = 50)
+    private List<OrderLine> lines;
+}
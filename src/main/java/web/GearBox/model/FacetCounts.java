@@ -0,0 +1,9 @@
+package web.GearBox.model;
+
+import java.util.Map;
+
+// Live counts next to each facet value. Every facet is counted with all the other filters applied but not its own,
+// so a count is what the listing would hold after switching to (or adding) that value.
+public record FacetCounts(int total, Map<String, Integer> categories, Map<String, Integer> brands,
+                          Map<PriceRange, Integer> prices, int inStock, Map<ReleaseWindow, Integer> released) {
+}
@@ -0,0 +1,18 @@
+package web.GearBox.model;
+
+import java.util.List;
+
+// Listing filters. Categories combine with AND, brands with OR; null price or release means no restriction.
+public record FacetQuery(List<String> categories, List<String> brands, PriceRange price, boolean inStock,
+                         ReleaseWindow released) {
+
+    public static final FacetQuery NONE = new FacetQuery(List.of(), List.of(), null, false, null);
+
+    public static FacetQuery ofCategories(List<String> categories) {
+        return new FacetQuery(categories, List.of(), null, false, null);
+    }
+
+    public boolean isEmpty() {
+        return categories.isEmpty() && brands.isEmpty() && price == null && !inStock && released == null;
+    }
+}
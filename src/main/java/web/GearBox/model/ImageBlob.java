@@ -0,0 +1,22 @@
+package web.GearBox.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Image bytes keyed by content hash, used when gearbox.images.store=database
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class ImageBlob {
+
+    @Id
+    private String contentHash;
+
+    @Lob
+    private byte[] data;
+}
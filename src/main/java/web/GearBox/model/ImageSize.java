@@ -0,0 +1,37 @@
+package web.GearBox.model;
+
+public enum ImageSize {
+    ORIGINAL(0, 0f),
+    THUMBNAIL(320, 0.8f),
+    MEDIUM(960, 0.85f),
+    // Re-encoded at the original dimensions
+    COMPRESSED(0, 0.75f);
+
+    private final int maxDimension;
+    private final float quality;
+
+    ImageSize(int maxDimension, float quality) {
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public float getQuality() {
+        return quality;
+    }
+
+    public static ImageSize fromParam(String value) {
+        if (value == null || value.isEmpty()) {
+            return ORIGINAL;
+        }
+        for (ImageSize size : values()) {
+            if (size.name().equalsIgnoreCase(value)) {
+                return size;
+            }
+        }
+        return null;
+    }
+}
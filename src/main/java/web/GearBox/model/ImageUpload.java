@@ -0,0 +1,16 @@
+package web.GearBox.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// An upload spooled to a temporary file, with its size, sniffed type and hash taken on the way in.
+// Saving it moves the file into the image store; closing removes whatever is left behind.
+public record ImageUpload(Path file, String originalFilename, String contentType, long contentLength,
+                          String contentHash) implements AutoCloseable {
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,54 @@
+package web.GearBox.model;
+
+// Fixed price buckets of the listing's price facet, bounds in minor units (upper bound exclusive)
+public enum PriceRange {
+    UNDER_25("0-25", 0, 2_500),
+    FROM_25("25-50", 2_500, 5_000),
+    FROM_50("50-100", 5_000, 10_000),
+    FROM_100("100-250", 10_000, 25_000),
+    FROM_250("250-500", 25_000, 50_000),
+    FROM_500("500-1000", 50_000, 100_000),
+    FROM_1000("1000+", 100_000, Long.MAX_VALUE);
+
+    private static final PriceRange[] VALUES = values();
+
+    private final String param;
+    private final long minMinor;
+    private final long maxMinor;
+
+    PriceRange(String param, long minMinor, long maxMinor) {
+        this.param = param;
+        this.minMinor = minMinor;
+        this.maxMinor = maxMinor;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public String getLabel() {
+        return maxMinor == Long.MAX_VALUE ? "$" + minMinor / 100 + "+" : "$" + minMinor / 100 + " - $" + maxMinor / 100;
+    }
+
+    public boolean contains(long priceMinor) {
+        return priceMinor >= minMinor && priceMinor < maxMinor;
+    }
+
+    public static PriceRange of(long priceMinor) {
+        for (PriceRange range : VALUES) {
+            if (range.contains(priceMinor)) {
+                return range;
+            }
+        }
+        return UNDER_25;
+    }
+
+    public static PriceRange fromParam(String value) {
+        for (PriceRange range : values()) {
+            if (range.param.equals(value)) {
+                return range;
+            }
+        }
+        return null;
+    }
+}
@@ -3,12 +3,17 @@ package web.GearBox.model;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+
+import org.hibernate.annotations.BatchSize;
+
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -21,6 +26,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_product_release_date", columnList = "release_date, id"),
+    // Sort columns of the admin product table
+    @Index(name = "idx_product_name", columnList = "name, id"),
+    @Index(name = "idx_product_price", columnList = "price, id"),
+    @Index(name = "idx_product_stock_quantity", columnList = "stock_quantity, id")
+})
 public class Product {
 
     @Id
@@ -40,8 +52,13 @@ public class Product {
     @DecimalMin(value = "0.0", message = "{product.price.min}")
     private BigDecimal price;
 
+    // Queries that need categories fetch them with an entity graph; any other lazy load brings in
+    // the collections of up to 50 loaded products at once instead of one query per product
     @NotNull(message = "{product.categories.notnull}")
     @ElementCollection
+    @BatchSize(size = 50)
+    @CollectionTable(name = "product_categories",
+            indexes = @Index(name = "idx_product_categories_category", columnList = "categories, product_id"))
     private List<String> categories;
 
     @NotNull(message = "{product.releaseDate.notnull}")
@@ -56,7 +73,4 @@ public class Product {
     private String imageName;
 
     private String imageType;
-
-    @Lob
-    private byte[] imageData;
 }
\ No newline at end of file
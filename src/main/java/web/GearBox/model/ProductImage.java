@@ -0,0 +1,35 @@
+package web.GearBox.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Image metadata lives in its own table so loading a Product never drags it along; the bytes themselves
+// are in the ImageStore under contentHash.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_product_image_content_hash", columnList = "content_hash"))
+public class ProductImage {
+
+    @Id
+    private int productId;
+
+    private String contentType;
+
+    private long contentLength;
+
+    private String contentHash;
+
+    // Inline bytes from before the image store, moved out and cleared by ImageStoreMigration. Loaded with the
+    // entity (there is no bytecode enhancement to make it lazy), which only the migration ever reads; serving
+    // and replacing images go through the ProductImageInfo projection and bulk deletes.
+    @Lob
+    private byte[] data;
+}
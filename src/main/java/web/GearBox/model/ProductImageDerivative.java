@@ -0,0 +1,47 @@
+package web.GearBox.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "image_size"}),
+       indexes = @Index(name = "idx_product_image_derivative_content_hash", columnList = "content_hash"))
+public class ProductImageDerivative {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    private int productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "image_size")
+    private ImageSize size;
+
+    private String contentType;
+
+    private long contentLength;
+
+    private String contentHash;
+
+    // Inline bytes from before the image store, moved out and cleared by ImageStoreMigration. Loaded with the
+    // entity (there is no bytecode enhancement to make it lazy), which only the migration ever reads; serving
+    // and replacing images go through the ProductImageInfo projection and bulk deletes.
+    @Lob
+    private byte[] data;
+}
@@ -0,0 +1,11 @@
+package web.GearBox.model;
+
+// Metadata-only view of a stored image, enough to answer conditional requests without reading the blob.
+public interface ProductImageInfo {
+
+    String getContentType();
+
+    long getContentLength();
+
+    String getContentHash();
+}
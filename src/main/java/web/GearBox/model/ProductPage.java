@@ -0,0 +1,20 @@
+package web.GearBox.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+
+    private List<ProductSummary> products;
+
+    // Opaque keyset position of the last product on this page, null on the last page
+    private String nextCursor;
+
+    private FacetCounts facets;
+}
@@ -0,0 +1,25 @@
+package web.GearBox.model;
+
+public enum ProductSort {
+    ID("id"),
+    NEWEST("newest");
+
+    private final String param;
+
+    ProductSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public static ProductSort fromParam(String value) {
+        for (ProductSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        return ID;
+    }
+}
@@ -0,0 +1,30 @@
+package web.GearBox.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Listing projection: just what a product card needs, no description, categories or image
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+
+    private int id;
+
+    private String name;
+
+    private String brand;
+
+    private BigDecimal price;
+
+    private boolean productAvailable;
+
+    private Integer stockQuantity;
+
+    // Carried only so the release-date listing can build its keyset cursor
+    private LocalDate releaseDate;
+}
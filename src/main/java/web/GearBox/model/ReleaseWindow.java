@@ -0,0 +1,33 @@
+package web.GearBox.model;
+
+// Release date facet: products released within the last n days. The windows nest, so one is picked at a time.
+public enum ReleaseWindow {
+    LAST_30_DAYS("30d", 30),
+    LAST_90_DAYS("90d", 90),
+    LAST_YEAR("1y", 365);
+
+    private final String param;
+    private final int days;
+
+    ReleaseWindow(String param, int days) {
+        this.param = param;
+        this.days = days;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public static ReleaseWindow fromParam(String value) {
+        for (ReleaseWindow window : values()) {
+            if (window.param.equals(value)) {
+                return window;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,133 @@
+package web.GearBox.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+// What a cart keeps in the HttpSession: parallel primitive arrays of product id, quantity and
+// unit price in minor units (cents). No entities, so the session stays a few hundred bytes
+// whatever the products look like; CartItem views are built from it only when rendering.
+public class SessionCart implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient int size;
+    private transient int[] productIds = new int[4];
+    private transient int[] quantities = new int[4];
+    private transient long[] unitPricesMinor = new long[4];
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getProductId(int index) {
+        return productIds[index];
+    }
+
+    public int getQuantity(int index) {
+        return quantities[index];
+    }
+
+    public long getUnitPriceMinor(int index) {
+        return unitPricesMinor[index];
+    }
+
+    public int quantityOf(int productId) {
+        int index = indexOf(productId);
+        return index >= 0 ? quantities[index] : 0;
+    }
+
+    // Sets the line for the product, appending it if new; a quantity of 0 or less removes it
+    public void put(int productId, int quantity, long unitPriceMinor) {
+        int index = indexOf(productId);
+        if (quantity <= 0) {
+            if (index >= 0) {
+                removeAt(index);
+            }
+            return;
+        }
+        if (index < 0) {
+            if (size == productIds.length) {
+                int capacity = size * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                unitPricesMinor = Arrays.copyOf(unitPricesMinor, capacity);
+            }
+            index = size++;
+            productIds[index] = productId;
+        }
+        quantities[index] = quantity;
+        unitPricesMinor[index] = unitPriceMinor;
+    }
+
+    public boolean remove(int productId) {
+        int index = indexOf(productId);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public static long toMinorUnits(BigDecimal price) {
+        return price != null ? price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact() : 0L;
+    }
+
+    public static BigDecimal fromMinorUnits(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    // Carts hold a handful of lines, a linear scan beats hashing here
+    private int indexOf(int productId) {
+        for (int i = 0; i < size; i++) {
+            if (productIds[i] == productId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        int tail = size - index - 1;
+        System.arraycopy(productIds, index + 1, productIds, index, tail);
+        System.arraycopy(quantities, index + 1, quantities, index, tail);
+        System.arraycopy(unitPricesMinor, index + 1, unitPricesMinor, index, tail);
+        size--;
+    }
+
+    // Only the used slots are written, not the spare array capacity
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(productIds[i]);
+            out.writeInt(quantities[i]);
+            out.writeLong(unitPricesMinor[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Negative cart size");
+        }
+        int capacity = Math.max(4, size);
+        productIds = new int[capacity];
+        quantities = new int[capacity];
+        unitPricesMinor = new long[capacity];
+        for (int i = 0; i < size; i++) {
+            productIds[i] = in.readInt();
+            quantities[i] = in.readInt();
+            unitPricesMinor[i] = in.readLong();
+        }
+    }
+}
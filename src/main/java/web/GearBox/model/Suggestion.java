@@ -0,0 +1,5 @@
+package web.GearBox.model;
+
+// One typeahead entry: type is "category", "brand" or "product", url is where picking it leads
+public record Suggestion(String type, String text, String url) {
+}
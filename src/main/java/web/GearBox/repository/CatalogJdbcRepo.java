@@ -0,0 +1,100 @@
+package web.GearBox.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import web.GearBox.model.Product;
+
+// Bulk catalog reads and writes that bypass the persistence context, so neither side holds more than a chunk
+@Repository
+public class CatalogJdbcRepo {
+
+    private static final String INSERT_PRODUCT_SQL =
+        "INSERT INTO product (name, description, brand, price, release_date, product_available, stock_quantity," +
+        " image_name, image_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CATEGORY_SQL =
+        "INSERT INTO product_categories (product_id, categories) VALUES (?, ?)";
+
+    private static final String EXPORT_SQL =
+        "SELECT p.id, p.name, p.description, p.brand, p.price, p.release_date, p.product_available, p.stock_quantity," +
+        " p.image_name, p.image_type," +
+        " (SELECT LISTAGG(c.categories, '|') WITHIN GROUP (ORDER BY c.categories)" +
+        "  FROM product_categories c WHERE c.product_id = p.id) AS categories" +
+        " FROM product p ORDER BY p.id";
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTemplate streamingTemplate;
+
+    public CatalogJdbcRepo(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                           @Value("${gearbox.catalog.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(fetchSize);
+    }
+
+    // One batch for the products and one for their categories; generated ids are written back onto the products
+    public void insertProducts(List<Product> products) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_PRODUCT_SQL, new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Product product = products.get(i);
+                    ps.setString(1, product.getName());
+                    ps.setString(2, product.getDescription());
+                    ps.setString(3, product.getBrand());
+                    ps.setBigDecimal(4, product.getPrice());
+                    ps.setDate(5, Date.valueOf(product.getReleaseDate()));
+                    ps.setBoolean(6, product.isProductAvailable());
+                    ps.setInt(7, product.getStockQuantity());
+                    ps.setString(8, product.getImageName());
+                    ps.setString(9, product.getImageType());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return products.size();
+                }
+            }, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(((Number) generated.get(i).values().iterator().next()).intValue());
+        }
+
+        List<Object[]> categoryRows = new ArrayList<>();
+        for (Product product : products) {
+            for (String category : product.getCategories()) {
+                categoryRows.add(new Object[] {product.getId(), category});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_CATEGORY_SQL, categoryRows);
+    }
+
+    // Rows are handed over one at a time while the cursor advances; no image columns are read
+    public void forEachProduct(Consumer<Product> action) {
+        streamingTemplate.query(EXPORT_SQL, rs -> {
+            String categories = rs.getString("categories");
+            Date releaseDate = rs.getDate("release_date");
+            action.accept(new Product(rs.getInt("id"), rs.getString("name"), rs.getString("description"),
+                rs.getString("brand"), rs.getBigDecimal("price"),
+                categories != null ? Arrays.asList(categories.split("\\|")) : List.of(),
+                releaseDate != null ? releaseDate.toLocalDate() : null, rs.getBoolean("product_available"),
+                rs.getInt("stock_quantity"), rs.getString("image_name"), rs.getString("image_type")));
+        });
+    }
+}
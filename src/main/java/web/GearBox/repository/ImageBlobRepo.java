@@ -0,0 +1,10 @@
+package web.GearBox.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import web.GearBox.model.ImageBlob;
+
+@Repository
+public interface ImageBlobRepo extends JpaRepository<ImageBlob, String> {
+}
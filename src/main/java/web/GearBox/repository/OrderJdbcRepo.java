@@ -0,0 +1,44 @@
+package web.GearBox.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import web.GearBox.model.CustomerOrder;
+import web.GearBox.model.OrderLine;
+
+// Order inserts: the order row goes in with checkout's stock decrement, the lines follow in JDBC batches
+// from the background writer
+@Repository
+public class OrderJdbcRepo {
+
+    private static final String INSERT_ORDER_SQL =
+        "INSERT INTO customer_order (id, session_id, created_at, item_count, total_minor) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_LINE_SQL =
+        "INSERT INTO order_line (order_id, product_id, quantity, unit_price_minor) VALUES (?, ?, ?, ?)";
+
+    private JdbcTemplate jdbcTemplate;
+
+    public OrderJdbcRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertOrder(CustomerOrder order) {
+        jdbcTemplate.update(INSERT_ORDER_SQL, order.getId(), order.getSessionId(), Timestamp.from(order.getCreatedAt()),
+            order.getItemCount(), order.getTotalMinor());
+    }
+
+    public void insertLines(List<CustomerOrder> orders) {
+        List<Object[]> lineRows = new ArrayList<>();
+        for (CustomerOrder order : orders) {
+            for (OrderLine line : order.getLines()) {
+                lineRows.add(new Object[] {order.getId(), line.getProductId(), line.getQuantity(), line.getUnitPriceMinor()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINE_SQL, lineRows);
+    }
+}
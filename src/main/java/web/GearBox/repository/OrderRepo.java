@@ -0,0 +1,11 @@
+package web.GearBox.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import web.GearBox.model.CustomerOrder;
+
+// Reads only; orders are written by OrderJdbcRepo
+@Repository
+public interface OrderRepo extends JpaRepository<CustomerOrder, String> {
+}
@@ -0,0 +1,35 @@
+package web.GearBox.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import web.GearBox.model.ImageSize;
+import web.GearBox.model.ProductImageDerivative;
+import web.GearBox.model.ProductImageInfo;
+
+@Repository
+public interface ProductImageDerivativeRepo extends JpaRepository<ProductImageDerivative, Integer> {
+
+    Optional<ProductImageInfo> findInfoByProductIdAndSize(int productId, ImageSize size);
+
+    boolean existsByContentHash(String contentHash);
+
+    @Query("SELECT d.contentHash FROM ProductImageDerivative d WHERE d.productId = :productId")
+    List<String> findContentHashesByProductId(int productId);
+
+    @Query("SELECT d.id FROM ProductImageDerivative d WHERE d.data IS NOT NULL")
+    List<Integer> findIdsWithInlineData(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ProductImageDerivative d WHERE d.productId = :productId AND d.size = :size")
+    int deleteByProductIdAndSize(int productId, ImageSize size);
+
+    @Modifying
+    @Query("DELETE FROM ProductImageDerivative d WHERE d.productId = :productId")
+    int deleteByProductId(int productId);
+}
@@ -0,0 +1,27 @@
+package web.GearBox.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import web.GearBox.model.ProductImage;
+import web.GearBox.model.ProductImageInfo;
+
+@Repository
+public interface ProductImageRepo extends JpaRepository<ProductImage, Integer> {
+
+    Optional<ProductImageInfo> findInfoByProductId(int productId);
+
+    boolean existsByContentHash(String contentHash);
+
+    @Query("SELECT i.productId FROM ProductImage i WHERE i.data IS NOT NULL")
+    List<Integer> findIdsWithInlineData(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ProductImage i WHERE i.productId = :productId")
+    int deleteByProductId(int productId);
+}
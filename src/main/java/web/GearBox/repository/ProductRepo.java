@@ -1,19 +1,61 @@
 package web.GearBox.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
 import web.GearBox.model.Product;
+import web.GearBox.model.ProductSummary;
 
 @Repository
 public interface ProductRepo extends JpaRepository<Product, Integer> {
 
-    @Query("SELECT p FROM Product p WHERE" +
-           " LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR" +
-           " LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR" +
-           " LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%')) OR" +
-           " EXISTS (SELECT c FROM p.categories c WHERE LOWER(c) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    List<Product> searchProducts(String keyword);
-}
\ No newline at end of file
+    String SUMMARY_SELECT = "SELECT new web.GearBox.model.ProductSummary(p.id, p.name, p.brand, p.price," +
+           " p.productAvailable, p.stockQuantity, p.releaseDate) FROM Product p";
+
+    String ADMIN_FILTER = " WHERE p.stockQuantity <= :maxStock AND p.productAvailable IN :availability";
+
+    @EntityGraph(attributePaths = "categories")
+    Optional<Product> findWithCategoriesById(int id);
+
+    @EntityGraph(attributePaths = "categories")
+    List<Product> findWithCategoriesByIdIn(Collection<Integer> ids);
+
+    @EntityGraph(attributePaths = "categories")
+    @Query("SELECT p FROM Product p")
+    List<Product> findAllWithCategories();
+
+    @Query(SUMMARY_SELECT + " WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIdIn(Collection<Integer> ids);
+
+    // Keyset (seek) pagination: callers pass the last seen key instead of an offset,
+    // so every page is an index range scan no matter how deep it is.
+    @Query(SUMMARY_SELECT + " WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummariesAfterId(int afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " WHERE p.releaseDate < :releaseDate OR (p.releaseDate = :releaseDate AND p.id < :beforeId)" +
+           " ORDER BY p.releaseDate DESC, p.id DESC")
+    List<ProductSummary> findSummariesReleasedBefore(LocalDate releaseDate, int beforeId, Pageable pageable);
+
+    // Admin table: numbered pages with a total, sorted by one of the indexed columns
+    @Query(value = SUMMARY_SELECT + ADMIN_FILTER, countQuery = "SELECT COUNT(p) FROM Product p" + ADMIN_FILTER)
+    Page<ProductSummary> findAdminSummaries(int maxStock, Collection<Boolean> availability, Pageable pageable);
+
+    // Same rows for the CSV download, read through a cursor; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + ADMIN_FILTER)
+    Stream<ProductSummary> streamAdminSummaries(int maxStock, Collection<Boolean> availability, Sort sort);
+}
@@ -0,0 +1,40 @@
+package web.GearBox.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Stock writes that must not go through a load-modify-save of the Product entity
+@Repository
+public class StockRepo {
+
+    private static final String DECREMENT_SQL =
+        "UPDATE product SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+
+    private JdbcTemplate jdbcTemplate;
+
+    public StockRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // One JDBC batch of conditional decrements; a 0 in the result marks a line without enough stock.
+    // Units reserved by other carts stay untouchable, so a line must leave at least that much behind.
+    public int[] decrementStock(int[] productIds, int[] quantities, int[] reservedElsewhere) {
+        return jdbcTemplate.batchUpdate(DECREMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, quantities[i]);
+                ps.setInt(2, productIds[i]);
+                ps.setInt(3, quantities[i] + reservedElsewhere[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productIds.length;
+            }
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package web.GearBox.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import web.GearBox.model.AdminProductQuery;
+import web.GearBox.model.AdminProductSort;
+import web.GearBox.model.ProductSummary;
+import web.GearBox.repository.ProductRepo;
+
+// Product table of the admin dashboard. Rows are summaries plus categories from ProductFacetIndex,
+// so neither the paged view nor the CSV download loads entities or image blobs.
+@Service
+public class AdminCatalogService {
+
+    private static final List<String> CSV_COLUMNS = List.of("id", "name", "brand", "price", "categories",
+        "stockQuantity", "productAvailable", "releaseDate");
+
+    private ProductRepo repo;
+    private ProductFacetIndex facetIndex;
+    private int pageSize;
+    private int lowStockThreshold;
+
+    public AdminCatalogService(ProductRepo repo, ProductFacetIndex facetIndex,
+                               @Value("${gearbox.admin.page-size:50}") int pageSize,
+                               @Value("${gearbox.admin.low-stock-threshold:5}") int lowStockThreshold) {
+        this.repo = repo;
+        this.facetIndex = facetIndex;
+        this.pageSize = pageSize;
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public Page<ProductSummary> getPage(AdminProductQuery query, int page) {
+        return repo.findAdminSummaries(maxStock(query), availability(query),
+            PageRequest.of(Math.max(page, 0), pageSize, sort(query)));
+    }
+
+    public Map<Integer, List<String>> categoriesOf(Collection<ProductSummary> products) {
+        return facetIndex.categoriesOf(products.stream().map(ProductSummary::getId).toList());
+    }
+
+    // Rows are written as the cursor advances; the read-only transaction keeps the stream open until the last one
+    @Transactional(readOnly = true)
+    public void writeCsv(AdminProductQuery query, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CatalogCsv.writeRecord(writer, CSV_COLUMNS);
+        try (Stream<ProductSummary> rows = repo.streamAdminSummaries(maxStock(query), availability(query), sort(query))) {
+            Iterator<ProductSummary> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                ProductSummary product = iterator.next();
+                List<String> categories = facetIndex.categoriesOf(List.of(product.getId())).get(product.getId());
+                CatalogCsv.writeRecord(writer, List.of(
+                    String.valueOf(product.getId()),
+                    product.getName() != null ? product.getName() : "",
+                    product.getBrand() != null ? product.getBrand() : "",
+                    product.getPrice() != null ? product.getPrice().toPlainString() : "",
+                    String.join("|", categories),
+                    String.valueOf(product.getStockQuantity()),
+                    String.valueOf(product.isProductAvailable()),
+                    product.getReleaseDate() != null ? product.getReleaseDate().toString() : ""));
+            }
+        }
+        writer.flush();
+    }
+
+    private int maxStock(AdminProductQuery query) {
+        return query.lowStock() ? lowStockThreshold : Integer.MAX_VALUE;
+    }
+
+    private static Set<Boolean> availability(AdminProductQuery query) {
+        return query.unavailable() ? Set.of(false) : Set.of(true, false);
+    }
+
+    // Id breaks ties so paging over equal names or prices is stable
+    private static Sort sort(AdminProductQuery query) {
+        Sort.Direction direction = query.descending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, query.sort().getProperty());
+        return query.sort() == AdminProductSort.ID ? sort : sort.and(Sort.by(direction, "id"));
+    }
+}
@@ -0,0 +1,75 @@
+package web.GearBox.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import web.GearBox.model.CartItem;
+import web.GearBox.model.CartSummary;
+import web.GearBox.model.Product;
+import web.GearBox.model.SessionCart;
+import web.GearBox.repository.ProductRepo;
+
+@Service
+public class CartService {
+
+    private ProductRepo repo;
+    private ProductCache productCache;
+    private StockReservationService reservationService;
+    private DistributionSummary cartLines;
+
+    public CartService(ProductRepo repo, ProductCache productCache, StockReservationService reservationService,
+                       MeterRegistry registry) {
+        this.repo = repo;
+        this.productCache = productCache;
+        this.reservationService = reservationService;
+        this.cartLines = DistributionSummary.builder("gearbox.cart.lines")
+            .description("Lines in a cart when it is viewed or checked out")
+            .register(registry);
+    }
+
+    // Refreshes every line from the catalog with at most one bulk query, clamps quantities
+    // to stock and to what the session can still hold, refreshes the price snapshots, drops
+    // empty lines and builds the render-time views and total in the same pass. The session
+    // cart is updated in place; viewing the cart renews the session's holds.
+    public CartSummary revalidate(SessionCart cart, String sessionId) {
+        List<Integer> ids = new ArrayList<>(cart.size());
+        for (int i = 0; i < cart.size(); i++) {
+            ids.add(cart.getProductId(i));
+        }
+        Map<Integer, Product> products = productCache.getAll(ids, this::loadProducts);
+
+        List<CartItem> items = new ArrayList<>(ids.size());
+        long totalMinor = 0;
+        boolean missingProducts = false;
+        for (int productId : ids) {
+            Product dbProduct = products.get(productId);
+            if (dbProduct == null) {
+                reservationService.release(sessionId, productId);
+                cart.remove(productId);
+                missingProducts = true;
+                continue;
+            }
+            int held = reservationService.reserve(sessionId, productId, cart.quantityOf(productId),
+                dbProduct.getStockQuantity());
+            long unitPriceMinor = SessionCart.toMinorUnits(dbProduct.getPrice());
+            cart.put(productId, held, unitPriceMinor);
+            if (held > 0) {
+                items.add(new CartItem(dbProduct, held, unitPriceMinor));
+                totalMinor += unitPriceMinor * held;
+            }
+        }
+        cartLines.record(items.size());
+        return new CartSummary(items, SessionCart.fromMinorUnits(totalMinor), missingProducts);
+    }
+
+    private List<Product> loadProducts(Set<Integer> ids) {
+        return repo.findWithCategoriesByIdIn(ids);
+    }
+}
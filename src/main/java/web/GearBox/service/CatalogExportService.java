@@ -0,0 +1,90 @@
+package web.GearBox.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import web.GearBox.model.CatalogFormat;
+import web.GearBox.model.Product;
+import web.GearBox.repository.CatalogJdbcRepo;
+
+// Writes the catalog in the import formats, row by row straight from the JDBC cursor. Image blobs are not exported.
+@Service
+public class CatalogExportService {
+
+    private CatalogJdbcRepo catalogRepo;
+    private ObjectMapper objectMapper;
+
+    public CatalogExportService(CatalogJdbcRepo catalogRepo, ObjectMapper objectMapper) {
+        this.catalogRepo = catalogRepo;
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(CatalogFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == CatalogFormat.CSV) {
+            CatalogCsv.writeRecord(writer, CatalogCsv.COLUMNS);
+        }
+        try {
+            catalogRepo.forEachProduct(product -> {
+                try {
+                    if (format == CatalogFormat.CSV) {
+                        writeCsv(writer, product);
+                    } else {
+                        writeJsonLine(writer, product);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Writer writer, Product product) throws IOException {
+        CatalogCsv.writeRecord(writer, List.of(
+            String.valueOf(product.getId()),
+            nullToEmpty(product.getName()),
+            nullToEmpty(product.getBrand()),
+            nullToEmpty(product.getDescription()),
+            product.getPrice() != null ? product.getPrice().toPlainString() : "",
+            String.join("|", product.getCategories()),
+            product.getReleaseDate() != null ? product.getReleaseDate().toString() : "",
+            String.valueOf(product.isProductAvailable()),
+            String.valueOf(product.getStockQuantity()),
+            nullToEmpty(product.getImageName())));
+    }
+
+    private void writeJsonLine(Writer writer, Product product) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", product.getId());
+        row.put("name", product.getName());
+        row.put("brand", product.getBrand());
+        row.put("description", product.getDescription());
+        row.put("price", product.getPrice());
+        row.put("categories", product.getCategories());
+        row.put("releaseDate", product.getReleaseDate() != null ? product.getReleaseDate().toString() : null);
+        row.put("productAvailable", product.isProductAvailable());
+        row.put("stockQuantity", product.getStockQuantity());
+        row.put("image", product.getImageName());
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,386 @@
+package web.GearBox.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import web.GearBox.model.CatalogFormat;
+import web.GearBox.model.CatalogImportJob;
+import web.GearBox.model.ImageUpload;
+import web.GearBox.model.Product;
+import web.GearBox.repository.CatalogJdbcRepo;
+
+// Bulk catalog import. Rows are parsed and validated one at a time and written in JDBC batches of
+// batch-size, so memory use depends on the chunk size rather than on the size of the file.
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 200;
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private CatalogJdbcRepo catalogRepo;
+    private ProductImageService imageService;
+    private CategoryRegistry categoryRegistry;
+    private Validator validator;
+    private ObjectMapper objectMapper;
+    private List<ProductChangeListener> listeners;
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor executor;
+    private int batchSize;
+    private final Map<String, CatalogImportJob> jobs = Collections.synchronizedMap(
+        new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CatalogImportJob> eldest) {
+                return size() > MAX_RETAINED_JOBS;
+            }
+        });
+
+    public CatalogImportService(CatalogJdbcRepo catalogRepo, ProductImageService imageService,
+                                CategoryRegistry categoryRegistry, Validator validator, ObjectMapper objectMapper,
+                                List<ProductChangeListener> listeners, PlatformTransactionManager transactionManager,
+                                @Value("${gearbox.catalog.import.batch-size:500}") int batchSize,
+                                @Value("${gearbox.catalog.import.queue-capacity:2}") int queueCapacity) {
+        this.catalogRepo = catalogRepo;
+        this.imageService = imageService;
+        this.categoryRegistry = categoryRegistry;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.listeners = listeners;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        // Imports run one after another; past the queue capacity a new upload is refused rather than piling up
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("catalog-import-"));
+    }
+
+    // Takes ownership of the spooled files and deletes them once the job is done
+    public CatalogImportJob submit(CatalogFormat format, Path data, Path images) {
+        CatalogImportJob job = new CatalogImportJob(UUID.randomUUID().toString(), format, MAX_REPORTED_ERRORS);
+        try {
+            executor.execute(() -> run(job, data, images));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(data);
+            deleteQuietly(images);
+            throw e;
+        }
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    public CatalogImportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    private void run(CatalogImportJob job, Path data, Path images) {
+        job.start();
+        try (BufferedReader reader = Files.newBufferedReader(data, StandardCharsets.UTF_8);
+             ZipFile zip = images != null ? new ZipFile(images.toFile()) : null) {
+            RowReader rows = job.getFormat() == CatalogFormat.JSONL ? jsonLines(reader) : csvRecords(reader);
+            List<PendingRow> chunk = new ArrayList<>(batchSize);
+            for (long row = 1; ; row++) {
+                Map<String, String> fields;
+                try {
+                    fields = rows.next();
+                } catch (IllegalArgumentException e) {
+                    job.rowRead();
+                    job.reject(row, e.getMessage());
+                    continue;
+                }
+                if (fields == null) {
+                    break;
+                }
+                job.rowRead();
+                try {
+                    chunk.add(toPendingRow(row, fields, zip));
+                } catch (IllegalArgumentException e) {
+                    job.reject(row, e.getMessage());
+                    continue;
+                }
+                if (chunk.size() >= batchSize) {
+                    flush(job, chunk, zip);
+                    chunk.clear();
+                }
+            }
+            flush(job, chunk, zip);
+            job.complete();
+            log.info("Catalog import {} finished: {} imported, {} rejected", job.getId(), job.getImported(), job.getRejected());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Catalog import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            deleteQuietly(data);
+            deleteQuietly(images);
+        }
+    }
+
+    private void flush(CatalogImportJob job, List<PendingRow> chunk, ZipFile zip) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Product> products = chunk.stream().map(PendingRow::product).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> catalogRepo.insertProducts(products));
+            stored(job, chunk, zip);
+        } catch (DataAccessException e) {
+            // One row the database refuses fails the whole batch; retry the chunk row by row so only that row is rejected
+            for (PendingRow pending : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> catalogRepo.insertProducts(List.of(pending.product())));
+                    stored(job, List.of(pending), zip);
+                } catch (DataAccessException rowFailure) {
+                    job.reject(pending.row(), firstLine(rowFailure.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+    }
+
+    // Runs after the chunk committed. Listeners hear about the chunk as a whole, so the page and product caches
+    // are dropped once per chunk rather than once per row. Images are streamed out of the zip and saved one per
+    // transaction.
+    private void stored(CatalogImportJob job, List<PendingRow> rows, ZipFile zip) {
+        job.imported(rows.size());
+        List<Product> products = rows.stream().map(PendingRow::product).toList();
+        for (ProductChangeListener listener : listeners) {
+            listener.productsSaved(products);
+        }
+        for (PendingRow pending : rows) {
+            if (pending.imageEntry() == null) {
+                continue;
+            }
+            Product product = pending.product();
+            try (InputStream in = zip.getInputStream(pending.imageEntry());
+                 ImageUpload upload = imageService.stage(in, product.getImageName())) {
+                imageService.saveImage(product.getId(), upload);
+                job.imageStored();
+            } catch (IOException | RuntimeException e) {
+                job.addError(pending.row(), "image: " + e.getMessage());
+            }
+        }
+    }
+
+    private PendingRow toPendingRow(long row, Map<String, String> fields, ZipFile zip) {
+        Product product = new Product();
+        product.setName(text(fields, "name"));
+        product.setBrand(text(fields, "brand"));
+        product.setDescription(text(fields, "description"));
+        String price = text(fields, "price");
+        if (price != null) {
+            try {
+                product.setPrice(new BigDecimal(price));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("price: not a number '" + price + "'");
+            }
+        }
+        List<String> categories = new ArrayList<>();
+        String categoryValues = text(fields, "categories");
+        if (categoryValues != null) {
+            for (String value : categoryValues.split("\\|")) {
+                value = value.trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                String key = categoryRegistry.findKey(value);
+                if (key == null) {
+                    throw new IllegalArgumentException("categories: unknown category '" + value + "'");
+                }
+                if (!categories.contains(key)) {
+                    categories.add(key);
+                }
+            }
+        }
+        if (categories.isEmpty()) {
+            throw new IllegalArgumentException("categories: at least one category is required");
+        }
+        product.setCategories(categories);
+        String releaseDate = text(fields, "releaseDate");
+        if (releaseDate != null) {
+            try {
+                product.setReleaseDate(LocalDate.parse(releaseDate));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("releaseDate: expected yyyy-MM-dd but got '" + releaseDate + "'");
+            }
+        }
+        product.setProductAvailable(Boolean.parseBoolean(text(fields, "productAvailable")));
+        String stockQuantity = text(fields, "stockQuantity");
+        if (stockQuantity != null) {
+            try {
+                product.setStockQuantity(Integer.parseInt(stockQuantity));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("stockQuantity: not a whole number '" + stockQuantity + "'");
+            }
+        }
+
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+        }
+
+        // Without an archive the image column is ignored, so an export can be re-imported on its own
+        ZipEntry imageEntry = null;
+        String image = text(fields, "image");
+        if (image != null && zip != null) {
+            imageEntry = zip.getEntry(image);
+            if (imageEntry == null || imageEntry.isDirectory()) {
+                throw new IllegalArgumentException("image: '" + image + "' not found in the image archive");
+            }
+            MediaType type = MediaTypeFactory.getMediaType(image)
+                .filter(mediaType -> "image".equals(mediaType.getType()))
+                .orElseThrow(() -> new IllegalArgumentException("image: '" + image + "' is not an image file"));
+            product.setImageName(image);
+            product.setImageType(type.toString());
+        }
+        return new PendingRow(row, product, imageEntry);
+    }
+
+    private RowReader csvRecords(BufferedReader reader) throws IOException {
+        List<String> header = CatalogCsv.readRecord(reader);
+        if (header == null) {
+            return () -> null;
+        }
+        List<String> columns = header.stream()
+            .map(column -> column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT))
+            .toList();
+        return () -> {
+            List<String> record;
+            do {
+                record = CatalogCsv.readRecord(reader);
+            } while (record != null && record.size() == 1 && record.get(0).isBlank());
+            if (record == null) {
+                return null;
+            }
+            if (record.size() != columns.size()) {
+                throw new IllegalArgumentException("expected " + columns.size() + " fields but found " + record.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                fields.put(columns.get(i), record.get(i));
+            }
+            return fields;
+        };
+    }
+
+    private RowReader jsonLines(BufferedReader reader) {
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                throw new IllegalArgumentException("expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            node.fields().forEachRemaining(field ->
+                fields.put(field.getKey().toLowerCase(Locale.ROOT), jsonText(field.getValue())));
+            return fields;
+        };
+    }
+
+    private static String jsonText(JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (value.isArray()) {
+            StringJoiner joined = new StringJoiner("|");
+            value.forEach(element -> joined.add(element.asText()));
+            return joined.toString();
+        }
+        return value.asText();
+    }
+
+    private static String text(Map<String, String> fields, String column) {
+        String value = fields.get(column.toLowerCase(Locale.ROOT));
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    // Driver messages append the whole SQL statement after the reason
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "rejected by the database";
+        }
+        int end = message.indexOf('\n');
+        return end >= 0 ? message.substring(0, end).trim() : message;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete import spool file {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        // Next row keyed by lower-cased column name, null once the input is exhausted
+        Map<String, String> next() throws IOException;
+    }
+
+    private record PendingRow(long row, Product product, ZipEntry imageEntry) {
+    }
+}
@@ -0,0 +1,91 @@
+package web.GearBox.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+
+// Category keys and their translated labels, resolved once per supported locale at startup.
+// Lookups in either direction are plain map reads instead of MessageSource calls and scans.
+@Component
+public class CategoryRegistry {
+
+    public static final List<String> KEYS = List.of("laptop", "headphone", "mobile", "electronics", "toys", "fashion");
+
+    public static final List<Locale> SUPPORTED_LOCALES = List.of(Locale.ENGLISH, Locale.forLanguageTag("tr"));
+
+    private final Map<String, Labels> labelsByLanguage;
+
+    public CategoryRegistry(MessageSource messageSource) {
+        Map<String, Labels> byLanguage = new HashMap<>();
+        for (Locale locale : SUPPORTED_LOCALES) {
+            List<String> labels = new ArrayList<>(KEYS.size());
+            Map<String, String> labelByKey = new HashMap<>();
+            Map<String, String> keyByLabel = new HashMap<>();
+            for (String key : KEYS) {
+                String label = messageSource.getMessage("category." + key, null, key, locale);
+                labels.add(label);
+                labelByKey.put(key, label);
+                keyByLabel.put(label, key);
+            }
+            byLanguage.put(locale.getLanguage(),
+                new Labels(List.copyOf(labels), Map.copyOf(labelByKey), Map.copyOf(keyByLabel)));
+        }
+        this.labelsByLanguage = Map.copyOf(byLanguage);
+    }
+
+    public List<String> labels(Locale locale) {
+        return labelsFor(locale).labels();
+    }
+
+    public String label(String key, Locale locale) {
+        return labelsFor(locale).labelByKey().getOrDefault(key, key);
+    }
+
+    // Translated label back to its key; keys themselves and unknown values pass through unchanged
+    public String keyFor(String label, Locale locale) {
+        return labelsFor(locale).keyByLabel().getOrDefault(label, label);
+    }
+
+    // Key for a key or a label in any supported locale, null when nothing matches; used by bulk import
+    public String findKey(String value) {
+        String lowerCase = value.toLowerCase(Locale.ROOT);
+        if (KEYS.contains(lowerCase)) {
+            return lowerCase;
+        }
+        for (Labels localized : labelsByLanguage.values()) {
+            String key = localized.keyByLabel().get(value);
+            if (key != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    // The key's label in every supported locale, used by search so shoppers can type either language
+    public Set<String> allLabels(String key) {
+        Set<String> labels = new LinkedHashSet<>();
+        for (Labels localized : labelsByLanguage.values()) {
+            String label = localized.labelByKey().get(key);
+            if (label != null) {
+                labels.add(label);
+            }
+        }
+        return labels.isEmpty() ? Set.of(key) : Collections.unmodifiableSet(labels);
+    }
+
+    private Labels labelsFor(Locale locale) {
+        Labels labels = locale != null ? labelsByLanguage.get(locale.getLanguage()) : null;
+        return labels != null ? labels : labelsByLanguage.get(Locale.ENGLISH.getLanguage());
+    }
+
+    private record Labels(List<String> labels, Map<String, String> labelByKey, Map<String, String> keyByLabel) {
+    }
+}
@@ -0,0 +1,110 @@
+package web.GearBox.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import web.GearBox.model.CustomerOrder;
+import web.GearBox.model.OrderLine;
+import web.GearBox.model.Product;
+import web.GearBox.model.SessionCart;
+import web.GearBox.repository.OrderJdbcRepo;
+import web.GearBox.repository.StockRepo;
+
+@Service
+public class CheckoutService {
+
+    private StockRepo stockRepo;
+    private ProductService productService;
+    private StockReservationService reservationService;
+    private List<ProductChangeListener> listeners;
+    private OrderJdbcRepo orderJdbcRepo;
+    private OrderWriter orderWriter;
+    private TransactionTemplate transactionTemplate;
+
+    public CheckoutService(StockRepo stockRepo, ProductService productService,
+                           StockReservationService reservationService, List<ProductChangeListener> listeners,
+                           OrderJdbcRepo orderJdbcRepo, OrderWriter orderWriter,
+                           PlatformTransactionManager transactionManager) {
+        this.stockRepo = stockRepo;
+        this.productService = productService;
+        this.reservationService = reservationService;
+        this.listeners = listeners;
+        this.orderJdbcRepo = orderJdbcRepo;
+        this.orderWriter = orderWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Decrements stock for the whole cart in one transaction. Each line is a conditional
+    // UPDATE (stock >= qty) so concurrent buyers cannot oversell, and any short line
+    // throws InsufficientStockException, rolling back every line before it. Stock held by
+    // other sessions' carts is not sold; this session's own holds are released on commit.
+    // The order row is inserted in the same transaction, so the stock is never taken without it.
+    // Its lines go to OrderWriter after the transaction has completed, not from an after-commit
+    // callback: a direct write under backpressure must not wait for a pooled connection while
+    // this checkout still holds one.
+    public String checkout(SessionCart cart, String sessionId) {
+        CustomerOrder order = transactionTemplate.execute(status -> decrementStock(cart, sessionId));
+        if (order == null) {
+            return null;
+        }
+        orderWriter.submit(order);
+        return order.getId();
+    }
+
+    private CustomerOrder decrementStock(SessionCart cart, String sessionId) {
+        // Take row locks in id order so concurrent checkouts cannot deadlock
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        List<OrderLine> lines = new ArrayList<>();
+        long totalMinor = 0;
+        for (int i = 0; i < cart.size(); i++) {
+            if (cart.getQuantity(i) > 0) {
+                quantities.put(cart.getProductId(i), cart.getQuantity(i));
+                lines.add(new OrderLine(0, cart.getProductId(i), cart.getQuantity(i), cart.getUnitPriceMinor(i)));
+                totalMinor += cart.getQuantity(i) * cart.getUnitPriceMinor(i);
+            }
+        }
+        if (quantities.isEmpty()) {
+            return null;
+        }
+        int[] productIds = new int[quantities.size()];
+        int[] amounts = new int[quantities.size()];
+        int[] reservedElsewhere = new int[quantities.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            productIds[i] = line.getKey();
+            amounts[i] = line.getValue();
+            reservedElsewhere[i] = reservationService.heldByOthers(line.getKey(), sessionId);
+            i++;
+        }
+        int[] updated = stockRepo.decrementStock(productIds, amounts, reservedElsewhere);
+        for (i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Product product = productService.getProductById(productIds[i]);
+                throw new InsufficientStockException(productIds[i], product != null ? product.getName() : null);
+            }
+        }
+        CustomerOrder order = new CustomerOrder(UUID.randomUUID().toString(), sessionId, Instant.now(),
+            Arrays.stream(amounts).sum(), totalMinor, lines);
+        orderJdbcRepo.insertOrder(order);
+        TransactionCallbacks.afterCommit(() -> {
+            if (sessionId != null) {
+                for (int productId : productIds) {
+                    reservationService.release(sessionId, productId);
+                }
+            }
+            for (ProductChangeListener listener : listeners) {
+                listener.stockSold(productIds, amounts);
+            }
+        });
+        return order;
+    }
+}
@@ -0,0 +1,68 @@
+package web.GearBox.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import web.GearBox.model.ImageBlob;
+import web.GearBox.repository.ImageBlobRepo;
+
+// Keeps the bytes in the database, deduplicated by hash, for deployments without a writable disk.
+// Reads go through the heap, unlike FileSystemImageStore. Writes commit on their own, like a file would, which
+// also keeps deletes issued from after-commit callbacks from joining the finished transaction.
+@Component
+@ConditionalOnProperty(name = "gearbox.images.store", havingValue = "database")
+public class DatabaseImageStore implements ImageStore {
+
+    private ImageBlobRepo repo;
+    private TransactionTemplate transactionTemplate;
+
+    public DatabaseImageStore(ImageBlobRepo repo, PlatformTransactionManager transactionManager) {
+        this.repo = repo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void put(String hash, byte[] data) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!repo.existsById(hash)) {
+                    repo.save(new ImageBlob(hash, data));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Same content stored concurrently by another upload or derivative worker
+        }
+    }
+
+    @Override
+    public void put(String hash, Path file) throws IOException {
+        try {
+            if (!repo.existsById(hash)) {
+                put(hash, Files.readAllBytes(file));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public Resource get(String hash) {
+        return repo.findById(hash).map(blob -> (Resource) new ByteArrayResource(blob.getData())).orElse(null);
+    }
+
+    @Override
+    public void delete(String hash) {
+        transactionTemplate.executeWithoutResult(status -> repo.deleteById(hash));
+    }
+}
@@ -0,0 +1,257 @@
+package web.GearBox.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import web.GearBox.model.ImageSize;
+import web.GearBox.model.ProductImageDerivative;
+import web.GearBox.model.ProductImageInfo;
+import web.GearBox.repository.ProductImageDerivativeRepo;
+import web.GearBox.repository.ProductImageRepo;
+
+// Builds the resized/re-encoded variants of an upload off the request thread.
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final ImageSize[] DERIVED_SIZES = {ImageSize.THUMBNAIL, ImageSize.MEDIUM, ImageSize.COMPRESSED};
+
+    private ProductImageDerivativeRepo derivativeRepo;
+    private ProductImageRepo imageRepo;
+    private TransactionTemplate transactionTemplate;
+    private ImageStore imageStore;
+    private ImageInfoCache infoCache;
+    private ThreadPoolExecutor executor;
+    // Hashes whose rows are still being written, with the number of writers on each
+    private ConcurrentHashMap<String, Integer> pins = new ConcurrentHashMap<>();
+
+    public ImageDerivativeService(ProductImageDerivativeRepo derivativeRepo, ProductImageRepo imageRepo,
+                                  ImageStore imageStore, ImageInfoCache infoCache,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${gearbox.images.derivative-threads:2}") int threads,
+                                  @Value("${gearbox.images.derivative-queue-capacity:100}") int queueCapacity) {
+        this.derivativeRepo = derivativeRepo;
+        this.imageRepo = imageRepo;
+        this.imageStore = imageStore;
+        this.infoCache = infoCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Bounded queue and no caller-runs fallback: when saturated the task is dropped and the original keeps being served
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-derivative-"),
+            (task, pool) -> log.warn("Image derivative queue full, skipping derivative generation"));
+    }
+
+    public ProductImageInfo getDerivativeInfo(int productId, ImageSize size) {
+        return derivativeRepo.findInfoByProductIdAndSize(productId, size).orElse(null);
+    }
+
+    public List<String> getDerivativeHashes(int productId) {
+        return derivativeRepo.findContentHashesByProductId(productId);
+    }
+
+    public void deleteDerivatives(int productId) {
+        derivativeRepo.deleteByProductId(productId);
+    }
+
+    // Queued only once the surrounding transaction commits, so the worker sees the new original
+    public void scheduleDerivatives(int productId, String sourceHash, long sourceLength) {
+        TransactionCallbacks.afterCommit(() -> executor.execute(() -> generate(productId, sourceHash, sourceLength)));
+    }
+
+    // Stored content is shared between identical images, so it is only removed once no row points at it any more
+    public void releaseAfterCommit(Collection<String> hashes) {
+        if (!hashes.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> release(hashes));
+        }
+    }
+
+    // Call before putting content whose row the current transaction writes: an identical upload being released
+    // meanwhile must not delete the bytes the row is about to point at. Held until the transaction finishes.
+    public void pinUntilCompletion(String hash) {
+        pin(hash);
+        TransactionCallbacks.afterCompletion(() -> unpin(hash));
+    }
+
+    private void pin(String hash) {
+        pins.merge(hash, 1, Integer::sum);
+    }
+
+    private void unpin(String hash) {
+        pins.computeIfPresent(hash, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    private void release(Collection<String> hashes) {
+        for (String hash : hashes) {
+            try {
+                // Checked and deleted inside the hash's map entry, so no writer can pin it in between
+                pins.compute(hash, (key, count) -> {
+                    if (count == null) {
+                        deleteIfUnreferenced(key);
+                    }
+                    return count;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Failed to release stored image {}", hash, e);
+            }
+        }
+    }
+
+    private void deleteIfUnreferenced(String hash) {
+        if (!imageRepo.existsByContentHash(hash) && !derivativeRepo.existsByContentHash(hash)) {
+            try {
+                imageStore.delete(hash);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Decodes straight from the stored original, the upload itself is never held in memory
+    private void generate(int productId, String sourceHash, long sourceLength) {
+        try {
+            Resource source = imageStore.get(sourceHash);
+            if (source == null) {
+                return;
+            }
+            BufferedImage image;
+            try (InputStream in = source.getInputStream()) {
+                image = ImageIO.read(in);
+            }
+            if (image == null) {
+                log.debug("No ImageIO reader for image of product {}, serving original only", productId);
+                return;
+            }
+            for (ImageSize size : DERIVED_SIZES) {
+                byte[] encoded = encodeJpeg(resize(image, size.getMaxDimension()), size.getQuality());
+                if (encoded.length >= sourceLength) {
+                    // Not worth storing, the original is already smaller
+                    continue;
+                }
+                store(productId, sourceHash, size, encoded);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to generate image derivatives for product {}", productId, e);
+        }
+    }
+
+    private void store(int productId, String sourceHash, ImageSize size, byte[] encoded) throws IOException {
+        String hash = Hashing.sha256Hex(encoded);
+        boolean saved;
+        pin(hash);
+        try {
+            imageStore.put(hash, encoded);
+            saved = saveDerivative(productId, sourceHash, size, hash, encoded.length);
+        } finally {
+            unpin(hash);
+        }
+        if (!saved) {
+            release(List.of(hash));
+        }
+    }
+
+    // False when the image was replaced or deleted while this task was queued
+    private boolean saveDerivative(int productId, String sourceHash, ImageSize size, String hash, int length) {
+        return transactionTemplate.execute(status -> {
+            ProductImageInfo current = imageRepo.findInfoByProductId(productId).orElse(null);
+            if (current == null || !sourceHash.equals(current.getContentHash())) {
+                return false;
+            }
+            List<String> replaced = derivativeRepo.findInfoByProductIdAndSize(productId, size)
+                .map(ProductImageInfo::getContentHash)
+                .map(List::of)
+                .orElse(List.of());
+            derivativeRepo.deleteByProductIdAndSize(productId, size);
+            derivativeRepo.save(new ProductImageDerivative(0, productId, size, "image/jpeg", length, hash, null));
+            releaseAfterCommit(replaced);
+            // Requests for this size stop falling back to the original
+            infoCache.invalidateAfterCommit(productId);
+            return true;
+        });
+    }
+
+    private static BufferedImage resize(BufferedImage source, int maxDimension) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (maxDimension > 0 && Math.max(width, height) > maxDimension) {
+            double scale = (double) maxDimension / Math.max(width, height);
+            width = Math.max(1, (int) Math.round(width * scale));
+            height = Math.max(1, (int) Math.round(height * scale));
+        }
+        BufferedImage current = source;
+        // Halve step by step: a single bilinear pass over a large reduction aliases badly
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha channel, flatten transparent uploads onto white
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,75 @@
+package web.GearBox.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import web.GearBox.model.ImageSize;
+import web.GearBox.service.ProductImageService.ServedImage;
+
+// What each product image size is served from, in front of the one or two metadata queries an image request
+// otherwise costs; a listing page fans out to one request per product card. Products without an image are
+// cached too, their cards ask just as often.
+@Component
+public class ImageInfoCache implements MeterBinder {
+
+    private Cache<ImageKey, Optional<ServedImage>> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ImageInfoCache(@Value("${gearbox.cache.images.max-size:20000}") long maxSize,
+                          @Value("${gearbox.cache.images.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    // Loaded outside Caffeine's compute like ProductCache.get; a load that overlapped an invalidation is
+    // returned but not kept
+    public ServedImage get(int productId, ImageSize size, Supplier<ServedImage> loader) {
+        ImageKey key = new ImageKey(productId, size);
+        Optional<ServedImage> cached = cache.getIfPresent(key);
+        if (cached == null) {
+            long generation = invalidations.get();
+            cached = Optional.ofNullable(loader.get());
+            cache.put(key, cached);
+            if (invalidations.get() != generation) {
+                cache.invalidate(key);
+            }
+        }
+        return cached.orElse(null);
+    }
+
+    // Every size of the product, once the transaction that changed its image rows commits
+    public void invalidateAfterCommit(int productId) {
+        TransactionCallbacks.afterCommit(() -> invalidate(productId));
+    }
+
+    public void invalidate(int productId) {
+        invalidations.incrementAndGet();
+        for (ImageSize size : ImageSize.values()) {
+            cache.invalidate(new ImageKey(productId, size));
+        }
+    }
+
+    // cache.gets{result=hit|miss}, evictions and size under cache="images"
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "images");
+    }
+
+    private record ImageKey(int productId, ImageSize size) {
+    }
+}
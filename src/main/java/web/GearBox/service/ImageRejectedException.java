@@ -0,0 +1,36 @@
+package web.GearBox.service;
+
+public class ImageRejectedException extends RuntimeException {
+
+    public enum Reason {
+        TOO_LARGE("product.image.too_large"),
+        UNSUPPORTED_TYPE("product.image.unsupported");
+
+        private final String messageCode;
+
+        Reason(String messageCode) {
+            this.messageCode = messageCode;
+        }
+
+        public String getMessageCode() {
+            return messageCode;
+        }
+    }
+
+    private final Reason reason;
+    private final long maxSize;
+
+    public ImageRejectedException(Reason reason, long maxSize, String message) {
+        super(message);
+        this.reason = reason;
+        this.maxSize = maxSize;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,22 @@
+package web.GearBox.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.core.io.Resource;
+
+// Content-addressed image bytes. Keys are SHA-256 hex digests, so identical uploads share one stored copy
+// and callers only ever need the hash kept in ProductImage / ProductImageDerivative.
+public interface ImageStore {
+
+    // No-op when the content is already stored
+    void put(String hash, byte[] data) throws IOException;
+
+    // Takes the file over: moved into place, or deleted when the content is already stored
+    void put(String hash, Path file) throws IOException;
+
+    // Null when nothing is stored under the hash
+    Resource get(String hash);
+
+    void delete(String hash) throws IOException;
+}
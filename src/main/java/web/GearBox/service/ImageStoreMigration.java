@@ -0,0 +1,92 @@
+package web.GearBox.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import web.GearBox.model.ProductImage;
+import web.GearBox.model.ProductImageDerivative;
+import web.GearBox.repository.ProductImageDerivativeRepo;
+import web.GearBox.repository.ProductImageRepo;
+
+// Moves bytes still stored inline in image rows into the ImageStore. Runs before any other runner
+// (the warm-up included), one small batch per transaction so a large backlog never sits on the heap at once.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ImageStoreMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStoreMigration.class);
+
+    private static final int BATCH_SIZE = 20;
+
+    private ProductImageRepo imageRepo;
+    private ProductImageDerivativeRepo derivativeRepo;
+    private ImageStore imageStore;
+    private TransactionTemplate transactionTemplate;
+
+    public ImageStoreMigration(ProductImageRepo imageRepo, ProductImageDerivativeRepo derivativeRepo,
+                               ImageStore imageStore, PlatformTransactionManager transactionManager) {
+        this.imageRepo = imageRepo;
+        this.derivativeRepo = derivativeRepo;
+        this.imageStore = imageStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int originals = 0;
+        int derivatives = 0;
+        int moved;
+        while ((moved = transactionTemplate.execute(status -> moveOriginals())) > 0) {
+            originals += moved;
+        }
+        while ((moved = transactionTemplate.execute(status -> moveDerivatives())) > 0) {
+            derivatives += moved;
+        }
+        if (originals + derivatives > 0) {
+            log.info("Moved {} images and {} derivatives into the image store", originals, derivatives);
+        }
+    }
+
+    private int moveOriginals() {
+        List<Integer> ids = imageRepo.findIdsWithInlineData(PageRequest.ofSize(BATCH_SIZE));
+        for (ProductImage image : imageRepo.findAllById(ids)) {
+            image.setContentHash(store(image.getData()));
+            image.setContentLength(image.getData().length);
+            image.setData(null);
+        }
+        return ids.size();
+    }
+
+    private int moveDerivatives() {
+        List<Integer> ids = derivativeRepo.findIdsWithInlineData(PageRequest.ofSize(BATCH_SIZE));
+        for (ProductImageDerivative derivative : derivativeRepo.findAllById(ids)) {
+            derivative.setContentHash(store(derivative.getData()));
+            derivative.setContentLength(derivative.getData().length);
+            derivative.setData(null);
+        }
+        return ids.size();
+    }
+
+    // Recomputed rather than trusted, rows written before content hashing have none
+    private String store(byte[] data) {
+        String hash = Hashing.sha256Hex(data);
+        try {
+            imageStore.put(hash, data);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to move image into the store", e);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,21 @@
+package web.GearBox.service;
+
+public class InsufficientStockException extends RuntimeException {
+
+    private final int productId;
+    private final String productName;
+
+    public InsufficientStockException(int productId, String productName) {
+        super("Insufficient stock for product " + productId);
+        this.productId = productId;
+        this.productName = productName;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+}
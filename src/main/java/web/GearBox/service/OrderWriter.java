@@ -0,0 +1,188 @@
+package web.GearBox.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import web.GearBox.model.CustomerOrder;
+import web.GearBox.repository.OrderJdbcRepo;
+
+// Write-behind for order lines. Checkout inserts the order row in the same transaction as its stock decrement,
+// so a committed sale always has its order, then hands the order to a bounded queue that one writer thread
+// drains, writing the lines in JDBC batches. A full queue is backpressure rather than loss: the checkout thread
+// then writes its own lines. Shutdown closes the queue and drains it before the data source is closed.
+// The queue is only in memory: if the process dies without a graceful shutdown, queued orders keep their row
+// (with its item count and total) but lose their lines.
+@Service
+public class OrderWriter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderWriter.class);
+
+    private static final int ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 500;
+
+    private OrderJdbcRepo orderJdbcRepo;
+    private TransactionTemplate transactionTemplate;
+    private BlockingQueue<CustomerOrder> queue;
+    private int batchSize;
+    private Duration shutdownTimeout;
+    private Thread writer;
+    private volatile boolean closed;
+
+    // Submitted orders whose lines are not yet written, or given up on, by either path
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder writtenInBackground = new LongAdder();
+    private final LongAdder writtenDirectly = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public OrderWriter(OrderJdbcRepo orderJdbcRepo, PlatformTransactionManager transactionManager,
+                       @Value("${gearbox.orders.queue-capacity:10000}") int queueCapacity,
+                       @Value("${gearbox.orders.batch-size:200}") int batchSize,
+                       @Value("${gearbox.orders.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.orderJdbcRepo = orderJdbcRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @PostConstruct
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-writer-");
+        threadFactory.setDaemon(true);
+        writer = threadFactory.newThread(this::run);
+        writer.start();
+    }
+
+    // For orders whose row is already committed. Never blocks on a full queue and never throws: the lines of
+    // a rejected order are written on the calling thread.
+    // Callers must not hold a connection of their own here, or a pool full of them waits on itself.
+    public void submit(CustomerOrder order) {
+        pending.incrementAndGet();
+        if (!closed && queue.offer(order)) {
+            return;
+        }
+        write(List.of(order), writtenDirectly);
+    }
+
+    // Waits until every submitted order has been written; false on timeout
+    public boolean awaitWritten(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gearbox.orders.queued", queue, BlockingQueue::size)
+            .description("Orders whose lines wait for the background writer").register(registry);
+        FunctionCounter.builder("gearbox.orders.written", writtenInBackground, LongAdder::sum)
+            .tag("path", "background").register(registry);
+        FunctionCounter.builder("gearbox.orders.written", writtenDirectly, LongAdder::sum)
+            .tag("path", "direct").register(registry);
+        FunctionCounter.builder("gearbox.orders.failed", failed, LongAdder::sum)
+            .description("Orders whose lines could not be persisted and were logged instead").register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        closed = true;
+        writer.join(shutdownTimeout.toMillis());
+        // Anything the writer did not get to, including orders that raced the close, is written here
+        List<CustomerOrder> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, batchSize) > 0) {
+            write(remaining, writtenDirectly);
+            remaining.clear();
+        }
+        if (pending.get() > 0) {
+            log.warn("{} orders were still being written at shutdown", pending.get());
+        }
+    }
+
+    private void run() {
+        List<CustomerOrder> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                CustomerOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Whatever queued up while the last batch was written goes out together
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch, writtenInBackground);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // write has already counted every order of the batch, written or failed; keep the thread alive
+                log.error("Order writer failed on orders {}", batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // A batch that keeps failing is retried order by order, so only the order the database refuses is lost,
+    // and that one is logged in full. Transaction failures such as an exhausted pool are retried the same way,
+    // and nothing is thrown: on the direct path the order and its stock are already committed.
+    private void write(List<CustomerOrder> orders, LongAdder written) {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= ATTEMPTS; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> orderJdbcRepo.insertLines(orders));
+                written.add(orders.size());
+                pending.addAndGet(-orders.size());
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+                if (attempt < ATTEMPTS && !pause(attempt * RETRY_DELAY_MS)) {
+                    break;
+                }
+            }
+        }
+        if (orders.size() > 1) {
+            for (CustomerOrder order : orders) {
+                write(List.of(order), written);
+            }
+            return;
+        }
+        failed.increment();
+        pending.decrementAndGet();
+        log.error("Could not persist the lines of order {}", orders.get(0), failure);
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package web.GearBox.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import web.GearBox.model.Product;
+
+// Rendered HTML of catalog pages, filled and served by PageCacheFilter. Listing pages remember the
+// product ids they show: a stock change only drops the pages showing that product, while catalog
+// writes drop every listing since any of them may gain or lose a row. Static pages are kept.
+@Component
+public class PageCache implements ProductChangeListener, MeterBinder {
+
+    public record CachedPage(byte[] body, String contentType, String etag, boolean listing, int[] productIds) {
+
+        boolean shows(Collection<Integer> ids) {
+            return Arrays.stream(productIds).anyMatch(ids::contains);
+        }
+    }
+
+    private Cache<String, CachedPage> cache;
+    private ProductFacetIndex facetIndex;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PageCache(ProductFacetIndex facetIndex,
+                     @Value("${gearbox.page-cache.max-size:1000}") long maxSize,
+                     @Value("${gearbox.page-cache.ttl:10m}") Duration ttl) {
+        this.facetIndex = facetIndex;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    public CachedPage get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    // Read before rendering and handed back to put, so a render that overlapped an invalidation is not cached
+    public long generation() {
+        return invalidations.get();
+    }
+
+    // productIds is null for pages that show no catalog data
+    public CachedPage put(String key, long generation, byte[] body, String contentType, Collection<Integer> productIds) {
+        int[] ids = productIds != null ? productIds.stream().mapToInt(Integer::intValue).toArray() : new int[0];
+        CachedPage page = new CachedPage(body, contentType, "\"" + Hashing.sha256Hex(body) + "\"", productIds != null, ids);
+        cache.put(key, page);
+        if (invalidations.get() != generation) {
+            cache.invalidate(key);
+        }
+        return page;
+    }
+
+    // Stock moved without a catalog write, e.g. a checkout
+    public void invalidateProducts(Collection<Integer> productIds) {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(page -> page.shows(productIds));
+    }
+
+    public void invalidateListings() {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(CachedPage::listing);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "pages");
+    }
+
+    @Override
+    public void rebuild(List<Product> products) {
+        invalidateListings();
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        invalidateListings();
+    }
+
+    @Override
+    public void productsSaved(List<Product> products) {
+        invalidateListings();
+    }
+
+    @Override
+    public void productDeleted(int productId) {
+        invalidateListings();
+    }
+
+    // A product sold out changes the in-stock facet count on every listing
+    @Override
+    public void stockSold(int[] productIds, int[] quantities) {
+        if (facetIndex.anyOutOfStock(productIds)) {
+            invalidateListings();
+        } else {
+            invalidateProducts(Arrays.stream(productIds).boxed().toList());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package web.GearBox.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import web.GearBox.model.Product;
+
+// Read-through cache in front of ProductRepo lookups by id. Entries are detached snapshots and
+// callers always get their own copy, so a controller mutating its Product never leaks into the cache.
+@Component
+public class ProductCache implements ProductChangeListener, MeterBinder {
+
+    private Cache<Integer, Product> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(@Value("${gearbox.cache.products.max-size:10000}") long maxSize,
+                        @Value("${gearbox.cache.products.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    // The loader runs outside Caffeine's compute, which holds a map bin monitor: a database call
+    // in there would pin a virtual thread's carrier. Two concurrent misses may both load, and a
+    // load that overlapped an invalidation drops its result rather than caching a stale row.
+    public Product get(int id, IntFunction<Product> loader) {
+        Product cached = cache.getIfPresent(id);
+        if (cached == null) {
+            long generation = invalidations.get();
+            Product loaded = loader.apply(id);
+            if (loaded == null) {
+                return null;
+            }
+            cached = copyOf(loaded);
+            cache.put(id, cached);
+            if (invalidations.get() != generation) {
+                cache.invalidate(id);
+            }
+        }
+        return copyOf(cached);
+    }
+
+    // Missing ids are handed to the loader together, so a cold cart costs one query rather than one per line.
+    // Like get, a load that overlapped an invalidation is returned but not kept.
+    public Map<Integer, Product> getAll(Collection<Integer> ids, Function<Set<Integer>, List<Product>> loader) {
+        Map<Integer, Product> cached = new HashMap<>(cache.getAllPresent(ids));
+        Set<Integer> missing = new HashSet<>(ids);
+        missing.removeAll(cached.keySet());
+        if (!missing.isEmpty()) {
+            long generation = invalidations.get();
+            Map<Integer, Product> loaded = new HashMap<>();
+            for (Product product : loader.apply(Set.copyOf(missing))) {
+                loaded.put(product.getId(), copyOf(product));
+            }
+            cache.putAll(loaded);
+            if (invalidations.get() != generation) {
+                cache.invalidateAll(loaded.keySet());
+            }
+            cached.putAll(loaded);
+        }
+        Map<Integer, Product> copies = new HashMap<>();
+        cached.forEach((id, product) -> copies.put(id, copyOf(product)));
+        return copies;
+    }
+
+    // Generation first: a load that puts after the invalidate below then always sees it changed
+    public void invalidate(int id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // cache.gets{result=hit|miss}, evictions and size under cache="products"
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "products");
+    }
+
+    @Override
+    public void rebuild(List<Product> products) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        invalidate(product.getId());
+    }
+
+    @Override
+    public void productsSaved(List<Product> products) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll(products.stream().map(Product::getId).toList());
+    }
+
+    @Override
+    public void productDeleted(int productId) {
+        invalidate(productId);
+    }
+
+    @Override
+    public void stockSold(int[] productIds, int[] quantities) {
+        for (int productId : productIds) {
+            invalidate(productId);
+        }
+    }
+
+    private static Product copyOf(Product source) {
+        Product copy = new Product();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setBrand(source.getBrand());
+        copy.setPrice(source.getPrice());
+        copy.setCategories(source.getCategories() != null ? new ArrayList<>(source.getCategories()) : null);
+        copy.setReleaseDate(source.getReleaseDate());
+        copy.setProductAvailable(source.isProductAvailable());
+        copy.setStockQuantity(source.getStockQuantity());
+        copy.setImageName(source.getImageName());
+        copy.setImageType(source.getImageType());
+        return copy;
+    }
+}
@@ -0,0 +1,24 @@
+package web.GearBox.service;
+
+import java.util.List;
+
+import web.GearBox.model.Product;
+
+// Implemented by in-memory structures that mirror the catalog; ProductService drives them after each commit.
+public interface ProductChangeListener {
+
+    void rebuild(List<Product> products);
+
+    void productSaved(Product product);
+
+    // A committed chunk of a bulk import. Caches that drop whole groups of entries override this to do it once.
+    default void productsSaved(List<Product> products) {
+        products.forEach(this::productSaved);
+    }
+
+    void productDeleted(int productId);
+
+    // Stock taken by a committed checkout; the product rows themselves are unchanged
+    default void stockSold(int[] productIds, int[] quantities) {
+    }
+}
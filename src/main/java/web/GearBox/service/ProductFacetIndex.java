@@ -0,0 +1,341 @@
+package web.GearBox.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import web.GearBox.model.FacetCounts;
+import web.GearBox.model.FacetQuery;
+import web.GearBox.model.PriceRange;
+import web.GearBox.model.Product;
+import web.GearBox.model.ReleaseWindow;
+import web.GearBox.model.SessionCart;
+
+// Listing filters and facet counts straight from memory. Products are rows addressed by their id: primitive
+// columns hold price in minor units, a dictionary code for the brand, the release day and the stock, while
+// categories and "in stock" are bitsets. A facet query with all of its counts is one pass over those columns.
+// Notified ahead of the other listeners, so the page cache sees a sale's effect on stock when it is notified.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductFacetIndex implements ProductChangeListener {
+
+    public record Result(BitSet matching, FacetCounts counts) {
+    }
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final BitSet present = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final Map<String, BitSet> productsByCategory = new HashMap<>();
+    private final List<String> brandNames = new ArrayList<>();
+    private final Map<String, Integer> brandCodes = new HashMap<>();
+    private long[] priceMinor = new long[INITIAL_CAPACITY];
+    private int[] brandCode = new int[INITIAL_CAPACITY];
+    private int[] releaseDay = new int[INITIAL_CAPACITY];
+    private int[] stock = new int[INITIAL_CAPACITY];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int brandLimit;
+
+    public ProductFacetIndex(@Value("${gearbox.catalog.facets.brand-limit:20}") int brandLimit) {
+        this.brandLimit = brandLimit;
+    }
+
+    @Override
+    public void rebuild(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            present.clear();
+            inStock.clear();
+            productsByCategory.clear();
+            brandNames.clear();
+            brandCodes.clear();
+            for (Product product : products) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(int productId) {
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void stockSold(int[] productIds, int[] quantities) {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < productIds.length; i++) {
+                int id = productIds[i];
+                if (!present.get(id)) {
+                    continue;
+                }
+                stock[id] -= quantities[i];
+                if (stock[id] <= 0) {
+                    inStock.clear(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // True when any of the products is out of stock, e.g. because a checkout just sold the last one
+    public boolean anyOutOfStock(int[] productIds) {
+        lock.readLock().lock();
+        try {
+            for (int id : productIds) {
+                if (present.get(id) && !inStock.get(id)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // One pass over the rows in the selected categories evaluates every other filter per row. A facet's counts
+    // include rows that pass all filters except its own; categories combine with AND, so they are counted on the result.
+    public Result search(FacetQuery query, LocalDate today) {
+        ReleaseWindow[] windows = ReleaseWindow.values();
+        int[] windowFrom = new int[windows.length];
+        for (ReleaseWindow window : windows) {
+            windowFrom[window.ordinal()] = (int) today.minusDays(window.getDays()).toEpochDay();
+        }
+        int releasedFrom = query.released() != null ? windowFrom[query.released().ordinal()] : Integer.MIN_VALUE;
+        PriceRange price = query.price();
+        boolean stockedOnly = query.inStock();
+
+        lock.readLock().lock();
+        try {
+            BitSet rows = query.categories().isEmpty() ? present : matchingAll(query.categories());
+            boolean[] brandSelected = query.brands().isEmpty() ? null : selectedBrands(query.brands());
+            int[] brandCounts = new int[brandNames.size()];
+            int[] priceCounts = new int[PriceRange.values().length];
+            int[] releaseCounts = new int[windows.length];
+            int inStockCount = 0;
+            BitSet matching = new BitSet(rows.length());
+            for (int id = rows.nextSetBit(0); id >= 0; id = rows.nextSetBit(id + 1)) {
+                boolean brandOk = brandSelected == null || brandSelected[brandCode[id]];
+                boolean priceOk = price == null || price.contains(priceMinor[id]);
+                boolean stocked = inStock.get(id);
+                boolean stockOk = !stockedOnly || stocked;
+                boolean releaseOk = releaseDay[id] >= releasedFrom;
+                if (priceOk && stockOk && releaseOk) {
+                    brandCounts[brandCode[id]]++;
+                }
+                if (brandOk && stockOk && releaseOk) {
+                    priceCounts[PriceRange.of(priceMinor[id]).ordinal()]++;
+                }
+                if (brandOk && priceOk && releaseOk && stocked) {
+                    inStockCount++;
+                }
+                if (brandOk && priceOk && stockOk) {
+                    for (int w = 0; w < windows.length; w++) {
+                        if (releaseDay[id] >= windowFrom[w]) {
+                            releaseCounts[w]++;
+                        }
+                    }
+                    if (releaseOk) {
+                        matching.set(id);
+                    }
+                }
+            }
+
+            Map<String, Integer> categoryCounts = new TreeMap<>();
+            productsByCategory.forEach((category, members) -> {
+                BitSet counted = (BitSet) members.clone();
+                counted.and(matching);
+                categoryCounts.put(category, counted.cardinality());
+            });
+            Map<PriceRange, Integer> prices = new EnumMap<>(PriceRange.class);
+            for (PriceRange range : PriceRange.values()) {
+                prices.put(range, priceCounts[range.ordinal()]);
+            }
+            Map<ReleaseWindow, Integer> released = new EnumMap<>(ReleaseWindow.class);
+            for (ReleaseWindow window : windows) {
+                released.put(window, releaseCounts[window.ordinal()]);
+            }
+            FacetCounts counts = new FacetCounts(matching.cardinality(), categoryCounts,
+                brandCounts(brandCounts, query.brands()), prices, inStockCount, released);
+            return new Result(matching, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Up to limit ids of the matching set ordered newest first (release day, then id, both descending),
+    // starting after the keyset position; the same order the unfiltered listing reads from the database
+    public List<Integer> newestBefore(BitSet matching, LocalDate releaseDate, int beforeId, int limit) {
+        long position = key((int) releaseDate.toEpochDay(), beforeId);
+        PriorityQueue<Long> top = new PriorityQueue<>(limit + 1);
+        lock.readLock().lock();
+        try {
+            for (int id = matching.nextSetBit(0); id >= 0; id = matching.nextSetBit(id + 1)) {
+                if (!present.get(id)) {
+                    continue;
+                }
+                long key = key(releaseDay[id], id);
+                if (key >= position || (top.size() == limit && key <= top.peek())) {
+                    continue;
+                }
+                top.add(key);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Integer> ids = new ArrayList<>(top.size());
+        top.stream().sorted(Comparator.reverseOrder()).forEach(key -> ids.add((int) (key & 0xFFFFFFFFL)));
+        return ids;
+    }
+
+    // Category keys of each given product, read from the bitsets so a listing page needs no categories query
+    public Map<Integer, List<String>> categoriesOf(Collection<Integer> productIds) {
+        Map<Integer, List<String>> result = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> sorted = new TreeMap<>(productsByCategory);
+            for (int productId : productIds) {
+                List<String> categories = new ArrayList<>();
+                sorted.forEach((category, members) -> {
+                    if (members.get(productId)) {
+                        categories.add(category);
+                    }
+                });
+                result.put(productId, categories);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private BitSet matchingAll(Collection<String> categories) {
+        BitSet result = null;
+        for (String category : categories) {
+            BitSet members = productsByCategory.get(category);
+            if (members == null) {
+                return new BitSet();
+            }
+            if (result == null) {
+                result = (BitSet) members.clone();
+            } else {
+                result.and(members);
+            }
+        }
+        return result;
+    }
+
+    private boolean[] selectedBrands(Collection<String> brands) {
+        boolean[] selected = new boolean[brandNames.size()];
+        for (String brand : brands) {
+            Integer code = brandCodes.get(brand);
+            if (code != null) {
+                selected[code] = true;
+            }
+        }
+        return selected;
+    }
+
+    // Most frequent brands first; selected brands are always listed so they can be unticked
+    private Map<String, Integer> brandCounts(int[] counts, Collection<String> selected) {
+        Integer[] codes = new Integer[counts.length];
+        Arrays.setAll(codes, code -> code);
+        Arrays.sort(codes, Comparator.<Integer>comparingInt(code -> -counts[code]).thenComparing(brandNames::get));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int code : codes) {
+            if (result.size() >= brandLimit || counts[code] == 0) {
+                break;
+            }
+            result.put(brandNames.get(code), counts[code]);
+        }
+        for (String brand : selected) {
+            Integer code = brandCodes.get(brand);
+            result.putIfAbsent(brand, code != null ? counts[code] : 0);
+        }
+        return result;
+    }
+
+    // Orders by day, then id; ids are non-negative so the low half compares correctly
+    private static long key(int day, int id) {
+        return ((long) day << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private void add(Product product) {
+        int id = product.getId();
+        ensureCapacity(id);
+        present.set(id);
+        priceMinor[id] = SessionCart.toMinorUnits(product.getPrice());
+        String brand = product.getBrand() != null ? product.getBrand() : "";
+        brandCode[id] = brandCodes.computeIfAbsent(brand, name -> {
+            brandNames.add(name);
+            return brandNames.size() - 1;
+        });
+        releaseDay[id] = product.getReleaseDate() != null ? (int) product.getReleaseDate().toEpochDay() : Integer.MIN_VALUE;
+        stock[id] = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+        if (product.isProductAvailable() && stock[id] > 0) {
+            inStock.set(id);
+        }
+        if (product.getCategories() != null) {
+            for (String category : product.getCategories()) {
+                productsByCategory.computeIfAbsent(category, c -> new BitSet()).set(id);
+            }
+        }
+    }
+
+    // A handful of categories, so clearing the bit everywhere is cheaper than tracking membership.
+    // Column values are left behind; nothing reads a row that is not present.
+    private void remove(int productId) {
+        present.clear(productId);
+        inStock.clear(productId);
+        productsByCategory.values().forEach(members -> members.clear(productId));
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < priceMinor.length) {
+            return;
+        }
+        int capacity = Math.max(id + 1, priceMinor.length * 2);
+        priceMinor = Arrays.copyOf(priceMinor, capacity);
+        brandCode = Arrays.copyOf(brandCode, capacity);
+        releaseDay = Arrays.copyOf(releaseDay, capacity);
+        stock = Arrays.copyOf(stock, capacity);
+    }
+}
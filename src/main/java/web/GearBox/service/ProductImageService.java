@@ -0,0 +1,179 @@
+package web.GearBox.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import web.GearBox.model.ImageSize;
+import web.GearBox.model.ImageUpload;
+import web.GearBox.model.ProductImage;
+import web.GearBox.model.ProductImageInfo;
+import web.GearBox.repository.ProductImageRepo;
+
+@Service
+public class ProductImageService {
+
+    private static final int SNIFF_LENGTH = 12;
+
+    private ProductImageRepo repo;
+    private ImageDerivativeService derivativeService;
+    private ImageStore imageStore;
+    private ImageInfoCache infoCache;
+    private Path uploadDirectory;
+    private long maxUploadSize;
+
+    public ProductImageService(ProductImageRepo repo, ImageDerivativeService derivativeService, ImageStore imageStore,
+                               ImageInfoCache infoCache,
+                               @Value("${gearbox.images.upload-directory:${java.io.tmpdir}/gearbox/uploads}") Path uploadDirectory,
+                               @Value("${gearbox.images.max-upload-size:10MB}") DataSize maxUploadSize) throws IOException {
+        this.repo = repo;
+        this.derivativeService = derivativeService;
+        this.imageStore = imageStore;
+        this.infoCache = infoCache;
+        this.uploadDirectory = Files.createDirectories(uploadDirectory.toAbsolutePath());
+        this.maxUploadSize = maxUploadSize.toBytes();
+    }
+
+    // What a request for one size is answered with; fallback when the original stands in for a derived size
+    public record ServedImage(ProductImageInfo info, boolean fallback) {
+    }
+
+    public ServedImage getServedImage(int productId, ImageSize size) {
+        return infoCache.get(productId, size, () -> loadServedImage(productId, size));
+    }
+
+    // Derived sizes fall back to the original until the background worker has produced them
+    private ServedImage loadServedImage(int productId, ImageSize size) {
+        if (size != ImageSize.ORIGINAL) {
+            ProductImageInfo derivative = derivativeService.getDerivativeInfo(productId, size);
+            if (derivative != null) {
+                return new ServedImage(derivative, false);
+            }
+        }
+        return repo.findInfoByProductId(productId)
+            .map(info -> new ServedImage(info, size != ImageSize.ORIGINAL))
+            .orElse(null);
+    }
+
+    public Resource getImageResource(ProductImageInfo info) {
+        return imageStore.get(info.getContentHash());
+    }
+
+    // Copies the stream to a temporary file in fixed-size chunks, hashing it and enforcing the size limit as it goes.
+    // The type comes from the leading bytes, not from what the client declared.
+    public ImageUpload stage(InputStream in, String originalFilename) throws IOException {
+        Path file = Files.createTempFile(uploadDirectory, "upload-", ".tmp");
+        try {
+            MessageDigest digest = Hashing.sha256();
+            byte[] buffer = new byte[8192];
+            byte[] head = new byte[SNIFF_LENGTH];
+            String contentType = null;
+            long length = 0;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (length < SNIFF_LENGTH) {
+                        System.arraycopy(buffer, 0, head, (int) length, (int) Math.min(read, SNIFF_LENGTH - length));
+                    }
+                    length += read;
+                    if (length > maxUploadSize) {
+                        throw new ImageRejectedException(ImageRejectedException.Reason.TOO_LARGE, maxUploadSize,
+                            "Image larger than " + maxUploadSize + " bytes");
+                    }
+                    if (contentType == null && length >= SNIFF_LENGTH) {
+                        contentType = requireImageType(head, SNIFF_LENGTH);
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (contentType == null) {
+                contentType = requireImageType(head, (int) length);
+            }
+            return new ImageUpload(file, originalFilename, contentType, length, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    @Transactional
+    public void saveImage(int productId, ImageUpload upload) throws IOException {
+        String hash = upload.contentHash();
+        // Stored before the rows: a rollback leaves at most an unreferenced file, never a row without bytes
+        derivativeService.pinUntilCompletion(hash);
+        imageStore.put(hash, upload.file());
+        List<String> replaced = referencedHashes(productId);
+        // Bulk delete first so the save below never has to load the previous row to merge it
+        repo.deleteByProductId(productId);
+        repo.save(new ProductImage(productId, upload.contentType(), upload.contentLength(), hash, null));
+        derivativeService.deleteDerivatives(productId);
+        derivativeService.releaseAfterCommit(replaced);
+        infoCache.invalidateAfterCommit(productId);
+        derivativeService.scheduleDerivatives(productId, hash, upload.contentLength());
+    }
+
+    @Transactional
+    public void deleteImage(int productId) {
+        List<String> replaced = referencedHashes(productId);
+        derivativeService.deleteDerivatives(productId);
+        repo.deleteByProductId(productId);
+        derivativeService.releaseAfterCommit(replaced);
+        infoCache.invalidateAfterCommit(productId);
+    }
+
+    private String requireImageType(byte[] head, int length) {
+        String contentType = sniffContentType(head, length);
+        if (contentType == null) {
+            throw new ImageRejectedException(ImageRejectedException.Reason.UNSUPPORTED_TYPE, maxUploadSize,
+                "Not a JPEG, PNG, GIF or WebP image");
+        }
+        return contentType;
+    }
+
+    private static String sniffContentType(byte[] head, int length) {
+        if (startsWith(head, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, length, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(head, length, 0, 'R', 'I', 'F', 'F') && startsWith(head, length, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int length, int offset, int... signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> referencedHashes(int productId) {
+        List<String> hashes = new ArrayList<>(derivativeService.getDerivativeHashes(productId));
+        repo.findInfoByProductId(productId).map(ProductImageInfo::getContentHash).ifPresent(hashes::add);
+        return hashes;
+    }
+}
@@ -0,0 +1,189 @@
+package web.GearBox.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import web.GearBox.model.Product;
+
+// Token -> product postings over name, brand, categories and description, served from memory.
+@Component
+public class ProductSearchIndex implements ProductChangeListener, MeterBinder {
+
+    private static final int NAME_WEIGHT = 8;
+    private static final int BRAND_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private CategoryRegistry categoryRegistry;
+
+    // Sorted so a prefix lookup is a single subMap range
+    private final TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    private final Map<Integer, Set<String>> termsByProduct = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchesWithResults = new LongAdder();
+
+    public ProductSearchIndex(CategoryRegistry categoryRegistry) {
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    @Override
+    public void rebuild(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByProduct.clear();
+            for (Product product : products) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(int productId) {
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Every query token must match a term exactly or as a prefix; exact hits score higher.
+    public List<Integer> search(String keyword, int limit) {
+        List<Integer> ids = find(keyword, limit);
+        searches.increment();
+        if (!ids.isEmpty()) {
+            searchesWithResults.increment();
+        }
+        return ids;
+    }
+
+    // Hit rate is searches{result=hit} over all searches
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gearbox.search.queries", searchesWithResults, LongAdder::sum)
+            .tag("result", "hit").register(registry);
+        FunctionCounter.builder("gearbox.search.queries", this,
+                index -> index.searches.sum() - index.searchesWithResults.sum())
+            .tag("result", "miss").register(registry);
+        Gauge.builder("gearbox.search.terms", this, ProductSearchIndex::termCount).register(registry);
+    }
+
+    private double termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Integer> find(String keyword, int limit) {
+        Set<String> queryTokens = new LinkedHashSet<>(SearchText.tokens(keyword));
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Double> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryToken : queryTokens) {
+                Map<Integer, Double> tokenScores = new HashMap<>();
+                for (Map.Entry<String, Map<Integer, Integer>> term
+                        : postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).entrySet()) {
+                    double factor = term.getKey().equals(queryToken) ? 1.0 : 0.5;
+                    term.getValue().forEach((id, weight) -> tokenScores.merge(id, weight * factor, Math::max));
+                }
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Integer, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<Integer> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    private void add(Product product) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTokens(weights, product.getName(), NAME_WEIGHT);
+        addTokens(weights, product.getBrand(), BRAND_WEIGHT);
+        addTokens(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        if (product.getCategories() != null) {
+            Set<String> categoryTokens = new HashSet<>();
+            for (String category : product.getCategories()) {
+                categoryTokens.addAll(SearchText.tokens(category));
+                // Index the translated labels too, so shoppers can search in the language they browse in
+                for (String label : categoryRegistry.allLabels(category)) {
+                    categoryTokens.addAll(SearchText.tokens(label));
+                }
+            }
+            categoryTokens.forEach(token -> weights.merge(token, CATEGORY_WEIGHT, Integer::sum));
+        }
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(product.getId(), weight));
+        termsByProduct.put(product.getId(), weights.keySet());
+    }
+
+    private void remove(int productId) {
+        Set<String> terms = termsByProduct.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Integer, Integer> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTokens(Map<String, Integer> weights, String text, int weight) {
+        for (String token : SearchText.tokens(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -1,62 +1,213 @@
 package web.GearBox.service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.annotation.PostConstruct;
+
+import web.GearBox.model.FacetQuery;
+import web.GearBox.model.ImageUpload;
 import web.GearBox.model.Product;
+import web.GearBox.model.ProductPage;
+import web.GearBox.model.ProductSort;
+import web.GearBox.model.ProductSummary;
+import web.GearBox.model.Suggestion;
 import web.GearBox.repository.ProductRepo;
 
 @Service
 public class ProductService {
 
+    // Upper bound used as the starting key of the first newest-first page
+    private static final LocalDate LATEST_RELEASE = LocalDate.of(9999, 12, 31);
+
+    private static final int SEARCH_RESULT_LIMIT = 50;
+
     private ProductRepo repo;
+    private ProductImageService imageService;
+    private ProductSearchIndex searchIndex;
+    private ProductCache productCache;
+    private ProductFacetIndex facetIndex;
+    private SuggestionIndex suggestionIndex;
+    private List<ProductChangeListener> listeners;
+    private int pageSize;
 
-    public ProductService(ProductRepo repo) {
+    public ProductService(ProductRepo repo, ProductImageService imageService, ProductSearchIndex searchIndex,
+                          ProductCache productCache, ProductFacetIndex facetIndex, SuggestionIndex suggestionIndex,
+                          List<ProductChangeListener> listeners,
+                          @Value("${gearbox.catalog.page-size:24}") int pageSize) {
         this.repo = repo;
+        this.imageService = imageService;
+        this.searchIndex = searchIndex;
+        this.productCache = productCache;
+        this.facetIndex = facetIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.listeners = listeners;
+        this.pageSize = pageSize;
+    }
+
+    // One catalog scan feeds every in-memory index before the first request is served
+    @PostConstruct
+    public void rebuildIndexes() {
+        List<Product> products = repo.findAllWithCategories();
+        for (ProductChangeListener listener : listeners) {
+            listener.rebuild(products);
+        }
+    }
+
+    // Filters and facet counts come from the in-memory facet index; only the page's own rows are read from the database
+    public ProductPage getProductPage(FacetQuery query, ProductSort sort, String cursor) {
+        ProductFacetIndex.Result facets = facetIndex.search(query, LocalDate.now());
+        BitSet matching = query.isEmpty() ? null : facets.matching();
+        if (matching != null && matching.isEmpty()) {
+            return new ProductPage(List.of(), null, facets.counts());
+        }
+        // One extra row tells us whether another page follows without a count query
+        Pageable limit = PageRequest.ofSize(pageSize + 1);
+        List<ProductSummary> products;
+        if (sort == ProductSort.NEWEST) {
+            LocalDate releaseDate = LATEST_RELEASE;
+            int beforeId = Integer.MAX_VALUE;
+            String[] position = cursor != null ? cursor.split("_", 2) : new String[0];
+            if (position.length == 2) {
+                try {
+                    releaseDate = LocalDate.parse(position[0]);
+                    beforeId = Integer.parseInt(position[1]);
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    releaseDate = LATEST_RELEASE;
+                    beforeId = Integer.MAX_VALUE;
+                }
+            }
+            products = matching == null
+                ? repo.findSummariesReleasedBefore(releaseDate, beforeId, limit)
+                : summariesInOrder(facetIndex.newestBefore(matching, releaseDate, beforeId, pageSize + 1));
+        } else {
+            int afterId = 0;
+            if (cursor != null) {
+                try {
+                    afterId = Integer.parseInt(cursor);
+                } catch (NumberFormatException e) {
+                    afterId = 0;
+                }
+            }
+            if (matching == null) {
+                products = repo.findSummariesAfterId(afterId, limit);
+            } else {
+                // Id order is the bitset's own order, so the page is just the next set bits
+                List<Integer> ids = new ArrayList<>(pageSize + 1);
+                int from = (int) Math.min(Math.max(afterId + 1L, 0L), Integer.MAX_VALUE);
+                for (int id = matching.nextSetBit(from); id >= 0 && ids.size() <= pageSize; id = matching.nextSetBit(id + 1)) {
+                    ids.add(id);
+                }
+                products = summariesInOrder(ids);
+            }
+        }
+        String nextCursor = null;
+        if (products.size() > pageSize) {
+            products = new ArrayList<>(products.subList(0, pageSize));
+            ProductSummary last = products.get(pageSize - 1);
+            nextCursor = sort == ProductSort.NEWEST
+                ? last.getReleaseDate() + "_" + last.getId()
+                : String.valueOf(last.getId());
+        }
+        return new ProductPage(products, nextCursor, facets.counts());
     }
 
-    public List<Product> getAllProducts() {
-        return repo.findAll();
+    private List<ProductSummary> summariesInOrder(List<Integer> ids) {
+        Map<Integer, ProductSummary> byId = repo.findSummariesByIdIn(ids).stream()
+            .collect(Collectors.toMap(ProductSummary::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toCollection(ArrayList::new));
     }
 
     public Product getProductById(int id) {
-        return repo.findById(id).orElse(null);
+        return productCache.get(id, key -> repo.findWithCategoriesById(key).orElse(null));
     }
 
-    public Product addProduct(Product product, MultipartFile imageFile) throws IOException {
-        if (imageFile != null && !imageFile.isEmpty()) {
-            product.setImageName(imageFile.getOriginalFilename());
-            product.setImageType(imageFile.getContentType());
-            product.setImageData(imageFile.getBytes());
+    // Multipart parts are already on disk (file-size-threshold 0), this streams one into a staged upload
+    public ImageUpload stageImage(MultipartFile imageFile) throws IOException {
+        try (InputStream in = imageFile.getInputStream()) {
+            return imageService.stage(in, imageFile.getOriginalFilename());
         }
-        return repo.save(product);
     }
 
-    public Product updateProduct(int id, Product product, MultipartFile imageFile) throws IOException {
-        Product existing = repo.findById(id).orElse(null);
+    @Transactional
+    public Product addProduct(Product product, ImageUpload image) throws IOException {
+        if (image != null) {
+            product.setImageName(image.originalFilename());
+            product.setImageType(image.contentType());
+        }
+        Product saved = repo.save(product);
+        if (image != null) {
+            imageService.saveImage(saved.getId(), image);
+        }
+        notifySaved(saved);
+        return saved;
+    }
+
+    @Transactional
+    public Product updateProduct(int id, Product product, ImageUpload image) throws IOException {
+        // Loaded with its categories so the merge below replaces them without another select
+        Product existing = repo.findWithCategoriesById(id).orElse(null);
         if (existing != null) {
             product.setId(id);
-            if (imageFile != null && !imageFile.isEmpty()) {
-                product.setImageName(imageFile.getOriginalFilename());
-                product.setImageType(imageFile.getContentType());
-                product.setImageData(imageFile.getBytes());
+            if (image != null) {
+                product.setImageName(image.originalFilename());
+                product.setImageType(image.contentType());
+                imageService.saveImage(id, image);
             } else {
                 product.setImageName(existing.getImageName());
                 product.setImageType(existing.getImageType());
-                product.setImageData(existing.getImageData());
             }
-            return repo.save(product);
+            Product saved = repo.save(product);
+            notifySaved(saved);
+            return saved;
         }
         return null;
     }
 
+    @Transactional
     public void deleteProductById(int id) {
+        imageService.deleteImage(id);
         repo.deleteById(id);
+        TransactionCallbacks.afterCommit(() -> listeners.forEach(listener -> listener.productDeleted(id)));
+    }
+
+    public List<ProductSummary> searchProducts(String keyword) {
+        List<Integer> ids = searchIndex.search(keyword, SEARCH_RESULT_LIMIT);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, ProductSummary> byId = repo.findSummariesByIdIn(ids).stream()
+            .collect(Collectors.toMap(ProductSummary::getId, Function.identity()));
+        // Keep the index's relevance order; ids deleted since the lookup simply drop out
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    // Typeahead is answered from memory alone; the suggestions carry their own links
+    public List<Suggestion> suggest(String text, Locale locale, int limit) {
+        return suggestionIndex.suggest(text, locale, limit);
+    }
+
+    public void recordProductView(int id) {
+        suggestionIndex.recordView(id);
     }
 
-    public List<Product> searchProducts(String keyword) {
-        return repo.searchProducts(keyword);
+    private void notifySaved(Product product) {
+        TransactionCallbacks.afterCommit(() -> listeners.forEach(listener -> listener.productSaved(product)));
     }
-}
\ No newline at end of file
+}
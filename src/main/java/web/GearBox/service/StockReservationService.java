@@ -0,0 +1,206 @@
+package web.GearBox.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Time-bounded per-session stock holds kept in memory. All mutations for a product happen under
+// one of a fixed set of striped locks, so carts touching different products never contend, while
+// readers get the reserved total from a concurrent map without locking or touching the database.
+@Service
+public class StockReservationService implements MeterBinder {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    // Guarded by the product's stripe lock
+    private final Map<Integer, Map<String, Hold>> holdsByProduct = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> reservedByProduct = new ConcurrentHashMap<>();
+    // A session's entry goes away with its last hold, so the map's size is the number of carts holding stock
+    private final Map<String, Set<Integer>> productsBySession = new ConcurrentHashMap<>();
+    // Changed only under the stripe lock of the hold added or removed, read lock-free by the gauge
+    private final AtomicInteger holdCount = new AtomicInteger();
+
+    private long ttlMillis;
+
+    public StockReservationService(@Value("${gearbox.reservations.ttl:15m}") Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Sets this session's hold on the product to the requested quantity, capped at what the other
+    // active holds leave of the stock, and restarts its TTL. Returns the quantity actually held.
+    public int reserve(String sessionId, int productId, int quantity, int stock) {
+        ReentrantLock lock = lockFor(productId);
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            Map<String, Hold> holds = holdsByProduct.computeIfAbsent(productId, id -> new HashMap<>());
+            purgeExpired(productId, holds, now);
+            Hold own = holds.remove(sessionId);
+            if (own != null) {
+                holdCount.decrementAndGet();
+            }
+            int heldByOthers = reservedByProduct.getOrDefault(productId, 0) - (own != null ? own.quantity : 0);
+            int granted = Math.max(0, Math.min(quantity, stock - heldByOthers));
+            if (granted > 0) {
+                holds.put(sessionId, new Hold(granted, now + ttlMillis));
+                holdCount.incrementAndGet();
+                rememberSession(sessionId, productId);
+            } else {
+                forgetSession(sessionId, productId);
+            }
+            updateReserved(productId, holds);
+            return granted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(String sessionId, int productId) {
+        ReentrantLock lock = lockFor(productId);
+        lock.lock();
+        try {
+            Map<String, Hold> holds = holdsByProduct.get(productId);
+            if (holds != null && holds.remove(sessionId) != null) {
+                holdCount.decrementAndGet();
+                updateReserved(productId, holds);
+            }
+            forgetSession(sessionId, productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void releaseAll(String sessionId) {
+        Set<Integer> productIds = productsBySession.remove(sessionId);
+        if (productIds != null) {
+            for (int productId : productIds) {
+                release(sessionId, productId);
+            }
+        }
+    }
+
+    public int reserved(int productId) {
+        return reservedByProduct.getOrDefault(productId, 0);
+    }
+
+    // Units held by every session except the given one (all holds when sessionId is null)
+    public int heldByOthers(int productId, String sessionId) {
+        ReentrantLock lock = lockFor(productId);
+        lock.lock();
+        try {
+            Map<String, Hold> holds = holdsByProduct.get(productId);
+            if (holds == null) {
+                return 0;
+            }
+            purgeExpired(productId, holds, System.currentTimeMillis());
+            Hold own = sessionId != null ? holds.get(sessionId) : null;
+            return reservedByProduct.getOrDefault(productId, 0) - (own != null ? own.quantity : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int availableStock(int productId, int stock) {
+        return Math.max(0, stock - reserved(productId));
+    }
+
+    public int activeHolds() {
+        return holdCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gearbox.reservations.holds", this, StockReservationService::activeHolds)
+            .description("Active cart stock holds").register(registry);
+        Gauge.builder("gearbox.reservations.carts", productsBySession, Map::size)
+            .description("Sessions holding stock").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${gearbox.reservations.sweep-interval-ms:30000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        for (Integer productId : holdsByProduct.keySet()) {
+            ReentrantLock lock = lockFor(productId);
+            lock.lock();
+            try {
+                Map<String, Hold> holds = holdsByProduct.get(productId);
+                if (holds != null) {
+                    purgeExpired(productId, holds, now);
+                    if (holds.isEmpty()) {
+                        holdsByProduct.remove(productId);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void purgeExpired(int productId, Map<String, Hold> holds, long now) {
+        boolean changed = false;
+        for (Iterator<Map.Entry<String, Hold>> it = holds.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Hold> entry = it.next();
+            if (entry.getValue().expiresAt <= now) {
+                it.remove();
+                holdCount.decrementAndGet();
+                forgetSession(entry.getKey(), productId);
+                changed = true;
+            }
+        }
+        if (changed) {
+            updateReserved(productId, holds);
+        }
+    }
+
+    private void updateReserved(int productId, Map<String, Hold> holds) {
+        int total = 0;
+        for (Hold hold : holds.values()) {
+            total += hold.quantity;
+        }
+        if (total > 0) {
+            reservedByProduct.put(productId, total);
+        } else {
+            reservedByProduct.remove(productId);
+        }
+    }
+
+    // Both run inside the map's compute, so a session's set is never dropped while another stripe adds to it
+    private void rememberSession(String sessionId, int productId) {
+        productsBySession.compute(sessionId, (id, productIds) -> {
+            Set<Integer> result = productIds != null ? productIds : ConcurrentHashMap.newKeySet();
+            result.add(productId);
+            return result;
+        });
+    }
+
+    private void forgetSession(String sessionId, int productId) {
+        productsBySession.computeIfPresent(sessionId, (id, productIds) -> {
+            productIds.remove(productId);
+            return productIds.isEmpty() ? null : productIds;
+        });
+    }
+
+    private ReentrantLock lockFor(int productId) {
+        return locks[Math.floorMod(Integer.hashCode(productId) * 0x9E3779B9, STRIPES)];
+    }
+
+    private record Hold(int quantity, long expiresAt) {
+    }
+}
@@ -0,0 +1,277 @@
+package web.GearBox.service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import web.GearBox.model.Product;
+import web.GearBox.model.Suggestion;
+
+// Typeahead over product names, brands and category labels in every supported locale. Each text is keyed
+// from every word start in folded form, so "lap" finds "Gaming Laptop" and "bilgi" the Turkish label of a
+// category; like the search index, a prefix is one sorted-map range. Entries rank by popularity: product page
+// views plus weighted units sold, summed up to the brand and the categories the product belongs to.
+@Component
+public class SuggestionIndex implements ProductChangeListener {
+
+    private static final int SALE_WEIGHT = 10;
+
+    private enum Type {
+        CATEGORY, BRAND, PRODUCT
+    }
+
+    private static final class Entry {
+        private final Type type;
+        private final String value;
+        private final int productId;
+        private final Set<String> keys = new HashSet<>();
+        private final AtomicLong popularity = new AtomicLong();
+        private String brand;
+        private List<String> categories = List.of();
+        private int products;
+
+        private Entry(Type type, String value, int productId) {
+            this.type = type;
+            this.value = value;
+            this.productId = productId;
+        }
+
+        // Brands and categories also count their products, so a bigger one wins before any views come in
+        private long score() {
+            return popularity.get() + products;
+        }
+    }
+
+    private static final Comparator<Entry> RANKING = Comparator.<Entry, Type>comparing(entry -> entry.type)
+        .thenComparing(Comparator.comparingLong(Entry::score).reversed())
+        .thenComparingInt(entry -> entry.value.length())
+        .thenComparing(entry -> entry.value);
+
+    private CategoryRegistry categoryRegistry;
+
+    private final TreeMap<String, Set<Entry>> entriesByKey = new TreeMap<>();
+    private final Map<Integer, Entry> productEntries = new HashMap<>();
+    private final Map<String, Entry> brandEntries = new HashMap<>();
+    private final Map<String, Entry> categoryEntries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SuggestionIndex(CategoryRegistry categoryRegistry) {
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    // Popularity is kept across a rebuild for products that are still there
+    @Override
+    public void rebuild(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            Map<Integer, Long> popularity = new HashMap<>();
+            productEntries.forEach((id, entry) -> popularity.put(id, entry.popularity.get()));
+            entriesByKey.clear();
+            productEntries.clear();
+            brandEntries.clear();
+            categoryEntries.clear();
+            for (Product product : products) {
+                add(product, popularity.getOrDefault(product.getId(), 0L));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        lock.writeLock().lock();
+        try {
+            add(product, remove(product.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(int productId) {
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void recordView(int productId) {
+        recordPopularity(productId, 1);
+    }
+
+    @Override
+    public void stockSold(int[] productIds, int[] quantities) {
+        for (int i = 0; i < productIds.length; i++) {
+            recordPopularity(productIds[i], (long) quantities[i] * SALE_WEIGHT);
+        }
+    }
+
+    // Categories first, then brands, then products, each by popularity; labels are shown in the shopper's locale
+    public List<Suggestion> suggest(String text, Locale locale, int limit) {
+        String prefix = String.join(" ", SearchText.tokens(text));
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // Short prefixes match much of the catalog, so only the best limit entries are kept, worst on top
+        PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Set<Entry> seen = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (Set<Entry> entries : entriesByKey.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                for (Entry entry : entries) {
+                    if (!seen.add(entry)) {
+                        continue;
+                    }
+                    if (top.size() < limit) {
+                        top.add(entry);
+                    } else if (RANKING.compare(entry, top.peek()) < 0) {
+                        top.poll();
+                        top.add(entry);
+                    }
+                }
+            }
+            // Scores are compared under the lock; views recorded meanwhile only affect the next lookup
+            return top.stream()
+                .sorted(RANKING)
+                .map(entry -> toSuggestion(entry, locale))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void recordPopularity(int productId, long amount) {
+        lock.readLock().lock();
+        try {
+            Entry product = productEntries.get(productId);
+            if (product == null) {
+                return;
+            }
+            product.popularity.addAndGet(amount);
+            Entry brand = brandEntries.get(product.brand);
+            if (brand != null) {
+                brand.popularity.addAndGet(amount);
+            }
+            for (String category : product.categories) {
+                Entry entry = categoryEntries.get(category);
+                if (entry != null) {
+                    entry.popularity.addAndGet(amount);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Suggestion toSuggestion(Entry entry, Locale locale) {
+        return switch (entry.type) {
+            case CATEGORY -> {
+                String label = categoryRegistry.label(entry.value, locale);
+                yield new Suggestion("category", label, "/?category=" + UriUtils.encodeQueryParam(label, "UTF-8"));
+            }
+            case BRAND -> new Suggestion("brand", entry.value, "/?brand=" + UriUtils.encodeQueryParam(entry.value, "UTF-8"));
+            case PRODUCT -> new Suggestion("product", entry.value, "/product/" + entry.productId);
+        };
+    }
+
+    private void add(Product product, long popularity) {
+        if (product.getName() == null) {
+            return;
+        }
+        Entry entry = new Entry(Type.PRODUCT, product.getName(), product.getId());
+        entry.popularity.set(popularity);
+        index(entry, product.getName());
+        productEntries.put(product.getId(), entry);
+
+        if (product.getBrand() != null && !product.getBrand().isBlank()) {
+            entry.brand = SearchText.fold(product.getBrand());
+            Entry brand = brandEntries.computeIfAbsent(entry.brand, folded -> {
+                Entry created = new Entry(Type.BRAND, product.getBrand(), 0);
+                index(created, product.getBrand());
+                return created;
+            });
+            brand.products++;
+            brand.popularity.addAndGet(popularity);
+        }
+        if (product.getCategories() != null) {
+            entry.categories = List.copyOf(new LinkedHashSet<>(product.getCategories()));
+            for (String key : entry.categories) {
+                Entry category = categoryEntries.computeIfAbsent(key, k -> {
+                    Entry created = new Entry(Type.CATEGORY, k, 0);
+                    categoryRegistry.allLabels(k).forEach(label -> index(created, label));
+                    return created;
+                });
+                category.products++;
+                category.popularity.addAndGet(popularity);
+            }
+        }
+    }
+
+    // Returns the removed product's popularity so a re-save keeps it
+    private long remove(int productId) {
+        Entry entry = productEntries.remove(productId);
+        if (entry == null) {
+            return 0;
+        }
+        long popularity = entry.popularity.get();
+        unindex(entry);
+        if (entry.brand != null) {
+            release(brandEntries, entry.brand, popularity);
+        }
+        for (String category : entry.categories) {
+            release(categoryEntries, category, popularity);
+        }
+        return popularity;
+    }
+
+    private void release(Map<String, Entry> entries, String id, long popularity) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return;
+        }
+        entry.popularity.addAndGet(-popularity);
+        if (--entry.products == 0) {
+            entries.remove(id);
+            unindex(entry);
+        }
+    }
+
+    // One key per word start: "gaming laptop 15", "laptop 15", "15"
+    private void index(Entry entry, String text) {
+        List<String> tokens = SearchText.tokens(text);
+        for (int i = 0; i < tokens.size(); i++) {
+            String key = String.join(" ", tokens.subList(i, tokens.size()));
+            if (entry.keys.add(key)) {
+                entriesByKey.computeIfAbsent(key, k -> new HashSet<>()).add(entry);
+            }
+        }
+    }
+
+    private void unindex(Entry entry) {
+        for (String key : entry.keys) {
+            Set<Entry> entries = entriesByKey.get(key);
+            if (entries != null) {
+                entries.remove(entry);
+                if (entries.isEmpty()) {
+                    entriesByKey.remove(key);
+                }
+            }
+        }
+        entry.keys.clear();
+    }
+}
@@ -3,7 +3,9 @@ package com.ziad.e_com_proj1;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+import web.GearBox.GearBoxApplication;
+
+@SpringBootTest(classes = GearBoxApplication.class)
 class EComProj1ApplicationTests {
 
 	@Test
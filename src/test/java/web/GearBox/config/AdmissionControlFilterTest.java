@@ -0,0 +1,84 @@
+package web.GearBox.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+
+// A search burst of two that practically never refills, and no image slots at all
+@SpringBootTest(properties = {"gearbox.page-cache.enabled=false", "gearbox.admission.search.rate=0.01",
+    "gearbox.admission.search.burst=2", "gearbox.admission.image.max-concurrent=0"})
+@AutoConfigureMockMvc
+class AdmissionControlFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void sessionOverItsBurstGets429WithRetryAfter() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        assertEquals(200, search(session, "10.0.0.1").getStatus());
+        assertEquals(200, search(session, "10.0.0.1").getStatus());
+
+        MockHttpServletResponse limited = search(session, "10.0.0.1");
+        assertEquals(429, limited.getStatus());
+        assertTrue(Long.parseLong(limited.getHeader(HttpHeaders.RETRY_AFTER)) >= 1);
+        assertEquals("no-store", limited.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("Too many requests, please try again in a moment", limited.getContentAsString());
+
+        // Other sessions on the same address have buckets of their own
+        assertEquals(200, search(new MockHttpSession(), "10.0.0.1").getStatus());
+    }
+
+    // Without a session they presented, clients share their address's bucket
+    @Test
+    void clientsWithoutSessionShareTheirAddressBucket() throws Exception {
+        assertEquals(200, search(null, "10.0.0.2").getStatus());
+        assertEquals(200, search(null, "10.0.0.2").getStatus());
+        assertEquals(429, search(null, "10.0.0.2").getStatus());
+        // A session the client did not send back, e.g. one started for a request without cookies
+        MockHttpServletResponse fresh = mvc.perform(get("/search").param("keyword", "laptop")
+            .session(new MockHttpSession())
+            .with(r -> {
+                r.setRemoteAddr("10.0.0.2");
+                r.setRequestedSessionIdValid(false);
+                return r;
+            })).andReturn().getResponse();
+        assertEquals(429, fresh.getStatus());
+        assertEquals(200, search(null, "10.0.0.3").getStatus());
+    }
+
+    @Test
+    void endpointWithoutFreeSlotGets503WithRetryAfter() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(SessionLocaleResolver.LOCALE_SESSION_ATTRIBUTE_NAME, Locale.forLanguageTag("tr"));
+        MockHttpServletResponse response = mvc.perform(get("/product/1/image").session(session))
+            .andReturn().getResponse();
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("Sunucu şu anda yoğun, lütfen biraz sonra tekrar deneyin", response.getContentAsString());
+    }
+
+    private MockHttpServletResponse search(MockHttpSession session, String address) throws Exception {
+        MockHttpServletRequestBuilder request = get("/search").param("keyword", "laptop").with(r -> {
+            r.setRemoteAddr(address);
+            return r;
+        });
+        if (session != null) {
+            request.session(session);
+        }
+        return mvc.perform(request).andReturn().getResponse();
+    }
+}
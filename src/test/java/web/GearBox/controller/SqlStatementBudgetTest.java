@@ -0,0 +1,105 @@
+package web.GearBox.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import web.GearBox.config.SqlStatementCounter;
+import web.GearBox.model.Product;
+import web.GearBox.repository.ProductRepo;
+import web.GearBox.service.CategoryRegistry;
+import web.GearBox.service.ProductService;
+import web.GearBox.support.CatalogSeeder;
+
+// Holds endpoints to a fixed number of SQL statements, view rendering included, with more products than fit
+// on a page; an association loaded once per row (an N+1) breaks the budget. The page and product caches are
+// off so every request really reaches the database.
+@SpringBootTest(properties = {"gearbox.page-cache.enabled=false", "gearbox.cache.products.max-size=0"})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlStatementBudgetTest {
+
+    private static final int PRODUCTS = 120;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private SqlStatementCounter counter;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private int[] ids;
+
+    @BeforeAll
+    void seedCatalog() {
+        ids = CatalogSeeder.seed(context, PRODUCTS, 0, 42);
+    }
+
+    // Filters, facet counts and categories come from memory; only the page's rows are read
+    @Test
+    void listingReadsOnlyThePageRows() throws Exception {
+        assertBudget(1, get("/"));
+        assertBudget(1, get("/").param("sort", "newest"));
+        assertBudget(1, get("/").param("category", "Laptop").param("inStock", "true").param("sort", "newest"));
+        assertBudget(1, get("/search").param("keyword", "pro"));
+        assertBudget(0, get("/search/suggest").param("q", "pro"));
+    }
+
+    @Test
+    void adminTableReadsOnePageAndItsCount() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("adminLoggedIn", true);
+        assertBudget(2, get("/admin").session(session));
+    }
+
+    @Test
+    void productAndCartLoadCategoriesWithTheProducts() throws Exception {
+        assertBudget(1, get("/product/" + ids[0]));
+        MockHttpSession session = new MockHttpSession();
+        for (int i = 0; i < 10; i++) {
+            mvc.perform(post("/cart/add").param("productId", String.valueOf(ids[i])).session(session));
+        }
+        assertBudget(1, get("/cart").session(session));
+    }
+
+    // Load with categories, delete the old rows, then one batched insert however many categories there are
+    @Test
+    void updateRewritesCategoriesInOneBatch() throws Exception {
+        int id = ids[PRODUCTS - 1];
+        Product product = productService.getProductById(id);
+        product.setCategories(new ArrayList<>(CategoryRegistry.KEYS));
+        counter.reset();
+        productService.updateProduct(id, product, null);
+        assertTrue(counter.current() <= 3, "update issued " + counter.current() + " statements");
+        assertEquals(CategoryRegistry.KEYS, productRepo.findWithCategoriesById(id).orElseThrow().getCategories());
+    }
+
+    private void assertBudget(int budget, RequestBuilder request) throws Exception {
+        counter.reset();
+        int status = mvc.perform(request).andReturn().getResponse().getStatus();
+        assertTrue(status < 400, "status " + status);
+        assertTrue(counter.current() <= budget, "issued " + counter.current() + " SQL statements, budget " + budget);
+    }
+}
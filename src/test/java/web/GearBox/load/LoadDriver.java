@@ -0,0 +1,220 @@
+package web.GearBox.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import web.GearBox.service.CategoryRegistry;
+import web.GearBox.support.CatalogSeeder;
+
+// Closed-loop HTTP load generator: every virtual user is a virtual thread with its own cookie jar
+// (and so its own cart session) that keeps picking a weighted scenario until the run ends.
+public class LoadDriver {
+
+    enum Scenario {
+        HOME, CATEGORY, SEARCH, IMAGE, ADD_TO_CART, CHECKOUT
+    }
+
+    enum Endpoint {
+        HOME("GET /"), CATEGORY("GET /?category"), SEARCH("GET /search"), IMAGE("GET /product/{id}/image"),
+        CART_ADD("POST /cart/add"), CHECKOUT("POST /checkout");
+
+        private final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+    }
+
+    private final String baseUrl;
+    private final int[] productIds;
+    private final int imageCount;
+    private final Map<Scenario, Integer> mix;
+
+    private final Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    // Turned away by admission control (429/503 with Retry-After): counted apart and kept out of the latencies
+    private final Map<Endpoint, LongAdder> shed = new EnumMap<>(Endpoint.class);
+
+    public LoadDriver(String baseUrl, int[] productIds, int imageCount, Map<Scenario, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.productIds = productIds;
+        this.imageCount = Math.min(imageCount, productIds.length);
+        this.mix = mix;
+        for (Endpoint endpoint : Endpoint.values()) {
+            // Microseconds, three significant digits, auto-resizing up to any latency
+            latencies.put(endpoint, new ConcurrentHistogram(3));
+            errors.put(endpoint, new LongAdder());
+            shed.put(endpoint, new LongAdder());
+        }
+    }
+
+    // Parses "home=30,search=20,..." into scenario weights; unknown names fail fast
+    public static Map<Scenario, Integer> parseMix(String spec) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            mix.put(Scenario.valueOf(pair[0].trim().toUpperCase().replace('-', '_')), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+
+    public LoadReport run(int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long started = System.nanoTime();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < concurrency; u++) {
+                long seed = u;
+                users.execute(() -> runUser(new Random(seed), deadline));
+            }
+            users.shutdown();
+            users.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+        return new LoadReport(concurrency, Duration.ofNanos(System.nanoTime() - started), latencies, errors, shed);
+    }
+
+    private void runUser(Random random, long deadline) {
+        HttpClient client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(totalWeight);
+            Scenario scenario = null;
+            for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    scenario = entry.getKey();
+                    break;
+                }
+            }
+            perform(client, random, scenario);
+        }
+    }
+
+    private void perform(HttpClient client, Random random, Scenario scenario) {
+        int productId = productIds[random.nextInt(productIds.length)];
+        switch (scenario) {
+            case HOME -> get(client, Endpoint.HOME, "/");
+            case CATEGORY -> get(client, Endpoint.CATEGORY, "/?category="
+                + CategoryRegistry.KEYS.get(random.nextInt(CategoryRegistry.KEYS.size())));
+            case SEARCH -> get(client, Endpoint.SEARCH, "/search?keyword="
+                + encode(CatalogSeeder.KEYWORDS[random.nextInt(CatalogSeeder.KEYWORDS.length)]));
+            case IMAGE -> get(client, Endpoint.IMAGE, "/product/" + productIds[random.nextInt(Math.max(1, imageCount))]
+                + "/image?size=thumbnail");
+            case ADD_TO_CART -> post(client, Endpoint.CART_ADD, "/cart/add", "productId=" + productId);
+            case CHECKOUT -> {
+                post(client, Endpoint.CART_ADD, "/cart/add", "productId=" + productId);
+                post(client, Endpoint.CHECKOUT, "/checkout", "");
+            }
+        }
+    }
+
+    private void get(HttpClient client, Endpoint endpoint, String path) {
+        send(client, endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+
+    private void post(HttpClient client, Endpoint endpoint, String path, String form) {
+        send(client, endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form)));
+    }
+
+    private void send(HttpClient client, Endpoint endpoint, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            if ((status == 429 || status == 503) && response.headers().firstValue("Retry-After").isPresent()) {
+                shed.get(endpoint).increment();
+                return;
+            }
+            if (status >= 400) {
+                errors.get(endpoint).increment();
+            }
+        } catch (IOException e) {
+            errors.get(endpoint).increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        latencies.get(endpoint).recordValue(Math.max(1, (System.nanoTime() - start) / 1_000));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    public record LoadReport(int concurrency, Duration elapsed, Map<Endpoint, Histogram> latencies,
+                             Map<Endpoint, LongAdder> errors, Map<Endpoint, LongAdder> shed) {
+
+        public long requests() {
+            return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        }
+
+        public long errorCount() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        public long shedCount() {
+            return shed.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        public double throughput() {
+            return requests() / (elapsed.toNanos() / 1e9);
+        }
+
+        public double errorRate() {
+            return requests() == 0 ? 0 : (double) errorCount() / requests();
+        }
+
+        public Map<String, String> summary() {
+            Map<String, String> rows = new LinkedHashMap<>();
+            double seconds = elapsed.toNanos() / 1e9;
+            for (Endpoint endpoint : Endpoint.values()) {
+                Histogram histogram = latencies.get(endpoint);
+                long count = histogram.getTotalCount();
+                long shedCount = shed.get(endpoint).sum();
+                if (count == 0 && shedCount == 0) {
+                    continue;
+                }
+                rows.put(endpoint.label, String.format("%8d %9.1f %7.2f%% %7.2f%% %9.2f %9.2f %9.2f %9.2f",
+                    count, count / seconds, count == 0 ? 0 : 100.0 * errors.get(endpoint).sum() / count,
+                    100.0 * shedCount / (count + shedCount),
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0));
+            }
+            return rows;
+        }
+
+        public void print(PrintStream out, String title) {
+            out.printf("%n== %s: %d users, %.1fs ==%n", title, concurrency, elapsed.toNanos() / 1e9);
+            out.printf("%-26s %8s %9s %8s %8s %9s %9s %9s %9s%n", "endpoint", "requests", "req/s", "errors", "shed",
+                "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            summary().forEach((label, row) -> out.printf("%-26s %s%n", label, row));
+            out.printf("%-26s %8d %9.1f %7.2f%% %7.2f%%%n", "total", requests(), throughput(), 100 * errorRate(),
+                100.0 * shedCount() / Math.max(1, requests() + shedCount()));
+        }
+    }
+}
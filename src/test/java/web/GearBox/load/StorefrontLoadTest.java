@@ -0,0 +1,71 @@
+package web.GearBox.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+
+import web.GearBox.support.CatalogSeeder;
+
+// Excluded from the default build, run with: mvn -Pload-test test [-Dload.concurrency=64 ...]
+// Add -Dspring.threads.virtual.enabled=true to measure the virtual-thread mode.
+// Admission control runs as shipped, except that the per-client rates are lifted: each driver user loops
+// without think time and stands in for many shoppers, while the in-flight caps still see the whole load.
+// What the caps shed is reported in a column of its own rather than as errors.
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"spring.jpa.show-sql=false", "logging.level.root=WARN", "gearbox.admission.search.rate=100000",
+        "gearbox.admission.search.burst=100000", "gearbox.admission.image.rate=100000",
+        "gearbox.admission.image.burst=100000"})
+class StorefrontLoadTest {
+
+    private static final String DEFAULT_MIX = "home=30,category=15,search=20,image=20,add_to_cart=10,checkout=5";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void storefrontMix() throws Exception {
+        int catalogSize = Integer.getInteger("load.catalogSize", 2000);
+        int imageCount = Integer.getInteger("load.images", 50);
+        int concurrency = Integer.getInteger("load.concurrency", 32);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup", 10));
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+
+        int[] productIds = CatalogSeeder.seed(context, catalogSize, imageCount, 42L);
+        String baseUrl = "http://localhost:" + port;
+        var mix = LoadDriver.parseMix(System.getProperty("load.mix", DEFAULT_MIX));
+
+        new LoadDriver(baseUrl, productIds, imageCount, mix).run(concurrency, warmup);
+        LoadDriver.LoadReport report = new LoadDriver(baseUrl, productIds, imageCount, mix).run(concurrency, duration);
+
+        report.print(System.out, "storefront");
+        Path output = Path.of("target", "load-test-report.txt");
+        writeReport(output, report);
+
+        assertTrue(report.requests() > 0, "load test sent no requests");
+        assertTrue(report.errorRate() <= maxErrorRate, "error rate " + report.errorRate() + " above " + maxErrorRate);
+    }
+
+    private static void writeReport(Path output, LoadDriver.LoadReport report) throws IOException {
+        Files.createDirectories(output.getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(output), true, StandardCharsets.UTF_8)) {
+            report.print(out, "storefront");
+        }
+    }
+}
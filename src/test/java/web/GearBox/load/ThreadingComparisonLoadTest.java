@@ -0,0 +1,69 @@
+package web.GearBox.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import web.GearBox.GearBoxApplication;
+import web.GearBox.config.VirtualThreadPinningMonitor;
+import web.GearBox.support.CatalogSeeder;
+
+// Same catalog and mix at high concurrency, once on Tomcat's platform thread pool and once on
+// virtual threads. Run with: mvn -Pload-test test -Dtest=ThreadingComparisonLoadTest
+@Tag("load")
+class ThreadingComparisonLoadTest {
+
+    private static final String DEFAULT_MIX = "home=30,category=15,search=20,image=20,add_to_cart=10,checkout=5";
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        int concurrency = Integer.getInteger("load.concurrency", 256);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+
+        LoadDriver.LoadReport platform = run(false, concurrency, duration);
+        LoadDriver.LoadReport virtual = run(true, concurrency, duration);
+
+        System.out.printf("%nvirtual/platform throughput: %.2fx (%.1f vs %.1f req/s at %d users)%n",
+            virtual.throughput() / platform.throughput(), virtual.throughput(), platform.throughput(), concurrency);
+        assertTrue(platform.errorRate() <= maxErrorRate, "platform error rate " + platform.errorRate());
+        assertTrue(virtual.errorRate() <= maxErrorRate, "virtual error rate " + virtual.errorRate());
+    }
+
+    private static LoadDriver.LoadReport run(boolean virtualThreads, int concurrency, Duration duration)
+            throws InterruptedException {
+        String mode = virtualThreads ? "virtual" : "platform";
+        int imageCount = Integer.getInteger("load.images", 50);
+        // Command-line arguments, unlike builder default properties, override application.properties.
+        // Per-client rates are lifted as in StorefrontLoadTest; the admission caps stay as shipped.
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GearBoxApplication.class)
+                .run("--server.port=0", "--management.server.port=0", "--spring.threads.virtual.enabled=" + virtualThreads,
+                    "--spring.datasource.url=jdbc:h2:mem:" + mode + ";DB_CLOSE_DELAY=-1",
+                    "--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+                    "--gearbox.admission.search.rate=100000", "--gearbox.admission.search.burst=100000",
+                    "--gearbox.admission.image.rate=100000", "--gearbox.admission.image.burst=100000")) {
+            int[] productIds = CatalogSeeder.seed(context, Integer.getInteger("load.catalogSize", 2000), imageCount, 42L);
+            String baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            Map<LoadDriver.Scenario, Integer> mix = LoadDriver.parseMix(System.getProperty("load.mix", DEFAULT_MIX));
+
+            new LoadDriver(baseUrl, productIds, imageCount, mix)
+                .run(concurrency, Duration.ofSeconds(Integer.getInteger("load.warmup", 10)));
+            LoadDriver.LoadReport report = new LoadDriver(baseUrl, productIds, imageCount, mix).run(concurrency, duration);
+            report.print(System.out, mode + " threads");
+
+            if (virtualThreads) {
+                VirtualThreadPinningMonitor monitor = context.getBean(VirtualThreadPinningMonitor.class);
+                System.out.printf("pinned virtual threads: %d%n", monitor.pinnedEvents());
+                monitor.pinnedSites().forEach((site, count) -> System.out.printf("  %6d  %s%n", count, site));
+            }
+            return report;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package web.GearBox.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class SessionCartTest {
+
+    @Test
+    void linesSurviveSerializationInOrder() throws Exception {
+        SessionCart cart = new SessionCart();
+        // More lines than the initial capacity, with a hole from a removal in the middle
+        for (int id = 1; id <= 6; id++) {
+            cart.put(id, id * 2, id * 1_000L);
+        }
+        cart.remove(3);
+
+        SessionCart copy = roundTrip(cart);
+        assertEquals(5, copy.size());
+        int[] expectedIds = {1, 2, 4, 5, 6};
+        for (int i = 0; i < expectedIds.length; i++) {
+            assertEquals(expectedIds[i], copy.getProductId(i));
+            assertEquals(expectedIds[i] * 2, copy.getQuantity(i));
+            assertEquals(expectedIds[i] * 1_000L, copy.getUnitPriceMinor(i));
+        }
+    }
+
+    // The arrays are rebuilt on read, so the copy must still grow past them
+    @Test
+    void restoredCartKeepsGrowing() throws Exception {
+        SessionCart copy = roundTrip(new SessionCart());
+        assertTrue(copy.isEmpty());
+        for (int id = 1; id <= 10; id++) {
+            copy.put(id, 1, 500L);
+        }
+        copy.put(4, 3, 700L);
+        assertEquals(10, copy.size());
+        assertEquals(3, copy.quantityOf(4));
+        assertEquals(700L, copy.getUnitPriceMinor(3));
+    }
+
+    // Only used slots are written: spare capacity left by removals does not grow the session
+    @Test
+    void spareCapacityIsNotWritten() throws Exception {
+        SessionCart grown = new SessionCart();
+        for (int id = 1; id <= 64; id++) {
+            grown.put(id, 1, 100L);
+        }
+        for (int id = 2; id <= 64; id++) {
+            grown.remove(id);
+        }
+        SessionCart small = new SessionCart();
+        small.put(1, 1, 100L);
+        assertEquals(serialize(small).length, serialize(grown).length);
+    }
+
+    private static SessionCart roundTrip(SessionCart cart) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(cart)))) {
+            return (SessionCart) in.readObject();
+        }
+    }
+
+    private static byte[] serialize(SessionCart cart) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cart);
+        }
+        return bytes.toByteArray();
+    }
+}
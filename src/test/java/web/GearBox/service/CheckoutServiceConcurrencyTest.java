@@ -0,0 +1,126 @@
+package web.GearBox.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import web.GearBox.model.Product;
+import web.GearBox.model.SessionCart;
+import web.GearBox.repository.OrderRepo;
+import web.GearBox.repository.ProductRepo;
+
+@SpringBootTest
+class CheckoutServiceConcurrencyTest {
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private OrderWriter orderWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void hotProductIsNeverOversold() throws Exception {
+        int stock = 200;
+        int threads = 32;
+        int attemptsPerThread = 25;
+        Product hot = productService.addProduct(product("Hot SKU", stock), null);
+        long ordersBefore = orderRepo.count();
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            checkoutService.checkout(cart(hot, 1), null);
+                            sold.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS), "checkout workers did not finish");
+
+        assertEquals(stock, sold.get());
+        assertEquals(threads * attemptsPerThread - stock, rejected.get());
+        assertEquals(0, productRepo.findById(hot.getId()).orElseThrow().getStockQuantity());
+        // Order rows commit with the stock and lines are written behind; every sale ends up as exactly one order
+        assertTrue(orderWriter.awaitWritten(Duration.ofSeconds(30)), "orders were not written");
+        assertEquals(stock, orderRepo.count() - ordersBefore);
+        assertEquals(stock, jdbcTemplate.queryForObject(
+            "SELECT SUM(quantity) FROM order_line WHERE product_id = ?", Integer.class, hot.getId()));
+    }
+
+    @Test
+    void shortLineRollsBackTheWholeCart() throws Exception {
+        Product plenty = productService.addProduct(product("Plenty", 5), null);
+        Product scarce = productService.addProduct(product("Scarce", 1), null);
+        SessionCart cart = cart(plenty, 2);
+        cart.put(scarce.getId(), 2, SessionCart.toMinorUnits(scarce.getPrice()));
+        long ordersBefore = orderRepo.count();
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class, () -> checkoutService.checkout(cart, null));
+
+        assertEquals(scarce.getId(), e.getProductId());
+        assertEquals(5, productRepo.findById(plenty.getId()).orElseThrow().getStockQuantity());
+        assertEquals(1, productRepo.findById(scarce.getId()).orElseThrow().getStockQuantity());
+        assertEquals(ordersBefore, orderRepo.count());
+    }
+
+    private static SessionCart cart(Product product, int quantity) {
+        SessionCart cart = new SessionCart();
+        cart.put(product.getId(), quantity, SessionCart.toMinorUnits(product.getPrice()));
+        return cart;
+    }
+
+    private static Product product(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name);
+        product.setBrand("GearBox");
+        product.setPrice(new BigDecimal("9.99"));
+        product.setCategories(new ArrayList<>(List.of("electronics")));
+        product.setReleaseDate(LocalDate.now());
+        product.setProductAvailable(true);
+        product.setStockQuantity(stock);
+        return product;
+    }
+}
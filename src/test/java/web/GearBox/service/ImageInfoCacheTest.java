@@ -0,0 +1,76 @@
+package web.GearBox.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import web.GearBox.model.ImageSize;
+import web.GearBox.model.ProductImageInfo;
+import web.GearBox.service.ProductImageService.ServedImage;
+
+class ImageInfoCacheTest {
+
+    private final ImageInfoCache cache = new ImageInfoCache(100, Duration.ofMinutes(10));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void productWithoutImageIsLoadedOnce() {
+        assertNull(cache.get(1, ImageSize.THUMBNAIL, this::missing));
+        assertNull(cache.get(1, ImageSize.THUMBNAIL, this::missing));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidationDropsEverySizeOfTheProduct() {
+        cache.get(1, ImageSize.THUMBNAIL, () -> served("original", true));
+        cache.get(1, ImageSize.ORIGINAL, () -> served("original", false));
+        ServedImage other = served("other", false);
+        cache.get(2, ImageSize.THUMBNAIL, () -> other);
+        cache.invalidate(1);
+        ServedImage derivative = served("thumbnail", false);
+        assertSame(derivative, cache.get(1, ImageSize.THUMBNAIL, () -> derivative));
+        assertNull(cache.get(1, ImageSize.ORIGINAL, this::missing));
+        assertSame(other, cache.get(2, ImageSize.THUMBNAIL, this::missing));
+    }
+
+    // A load that read the rows before a commit's invalidation is served once but not kept
+    @Test
+    void loadOverlappingAnInvalidationIsNotCached() {
+        ServedImage stale = served("original", true);
+        assertSame(stale, cache.get(1, ImageSize.THUMBNAIL, () -> {
+            cache.invalidate(1);
+            return stale;
+        }));
+        ServedImage fresh = served("thumbnail", false);
+        assertSame(fresh, cache.get(1, ImageSize.THUMBNAIL, () -> fresh));
+    }
+
+    private ServedImage missing() {
+        loads.incrementAndGet();
+        return null;
+    }
+
+    private ServedImage served(String hash, boolean fallback) {
+        return new ServedImage(new ProductImageInfo() {
+            @Override
+            public String getContentType() {
+                return "image/jpeg";
+            }
+
+            @Override
+            public long getContentLength() {
+                return 1;
+            }
+
+            @Override
+            public String getContentHash() {
+                return hash;
+            }
+        }, fallback);
+    }
+}
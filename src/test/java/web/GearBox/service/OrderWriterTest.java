@@ -0,0 +1,93 @@
+package web.GearBox.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import web.GearBox.model.CustomerOrder;
+import web.GearBox.repository.OrderJdbcRepo;
+
+// The writer thread is never started, and a queue of one is filled first, so submit takes the direct path
+class OrderWriterTest {
+
+    private final List<String> inserted = new ArrayList<>();
+
+    private final OrderJdbcRepo repo = new OrderJdbcRepo(null) {
+        @Override
+        public void insertLines(List<CustomerOrder> orders) {
+            orders.forEach(order -> inserted.add(order.getId()));
+        }
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void directWriteRetriesWhenNoConnectionIsAvailable() {
+        OrderWriter writer = writer(1);
+        writer.submit(order("queued"));
+        writer.submit(order("direct"));
+        assertEquals(List.of("direct"), inserted);
+        assertEquals(1, count("gearbox.orders.written"));
+        assertEquals(0, count("gearbox.orders.failed"));
+    }
+
+    // The order and its stock are already committed, so the customer must not see an error
+    @Test
+    void directWriteThatKeepsFailingIsCountedNotThrown() {
+        OrderWriter writer = writer(Integer.MAX_VALUE);
+        writer.submit(order("queued"));
+        writer.submit(order("direct"));
+        assertTrue(inserted.isEmpty());
+        assertEquals(1, count("gearbox.orders.failed"));
+    }
+
+    private OrderWriter writer(int failures) {
+        OrderWriter writer = new OrderWriter(repo, transactionManager(failures), 1, 10, Duration.ZERO);
+        writer.bindTo(registry);
+        return writer;
+    }
+
+    private double count(String name) {
+        return registry.find(name).functionCounters().stream().mapToDouble(FunctionCounter::count).sum();
+    }
+
+    // Refuses that many transactions first, the way an exhausted pool does
+    private static PlatformTransactionManager transactionManager(int failures) {
+        AtomicInteger remaining = new AtomicInteger(failures);
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                if (remaining.getAndDecrement() > 0) {
+                    throw new CannotCreateTransactionException("Connection is not available");
+                }
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    private static CustomerOrder order(String id) {
+        return new CustomerOrder(id, "session", Instant.now(), 1, 100, List.of());
+    }
+}
@@ -0,0 +1,98 @@
+package web.GearBox.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import web.GearBox.model.Product;
+
+class PageCacheTest {
+
+    private ProductFacetIndex facetIndex;
+    private PageCache cache;
+
+    @BeforeEach
+    void createCache() {
+        facetIndex = new ProductFacetIndex(20);
+        facetIndex.rebuild(List.of(product(1, 5), product(2, 1)));
+        cache = new PageCache(facetIndex, 100, Duration.ofMinutes(10));
+        put("/?page=1", List.of(1));
+        put("/?page=2", List.of(2));
+        put("/about_us", null);
+    }
+
+    // A render that overlapped an invalidation is served once but not kept
+    @Test
+    void renderOverlappingAnInvalidationIsNotCached() {
+        long generation = cache.generation();
+        cache.invalidateProducts(List.of(1));
+        cache.put("/?page=1", generation, body(), "text/html", List.of(1));
+        assertNull(cache.get("/?page=1"));
+    }
+
+    @Test
+    void saleDropsOnlyListingsShowingTheProduct() {
+        facetIndex.stockSold(new int[] {1}, new int[] {1});
+        cache.stockSold(new int[] {1}, new int[] {1});
+        assertNull(cache.get("/?page=1"));
+        assertNotNull(cache.get("/?page=2"));
+        assertNotNull(cache.get("/about_us"));
+    }
+
+    // Selling out changes the in-stock count every listing shows
+    @Test
+    void sellingOutDropsEveryListing() {
+        facetIndex.stockSold(new int[] {2}, new int[] {1});
+        cache.stockSold(new int[] {2}, new int[] {1});
+        assertNull(cache.get("/?page=1"));
+        assertNull(cache.get("/?page=2"));
+        assertNotNull(cache.get("/about_us"));
+    }
+
+    @Test
+    void catalogWritesDropListingsButKeepStaticPages() {
+        cache.productDeleted(2);
+        assertNull(cache.get("/?page=1"));
+        assertNotNull(cache.get("/about_us"));
+    }
+
+    // An import chunk is one invalidation, however many rows it has
+    @Test
+    void importChunkBumpsTheGenerationOnce() {
+        long generation = cache.generation();
+        cache.productsSaved(List.of(product(3, 1), product(4, 1), product(5, 1)));
+        assertEquals(generation + 1, cache.generation());
+        assertNull(cache.get("/?page=1"));
+        assertNotNull(cache.get("/about_us"));
+    }
+
+    private void put(String key, List<Integer> productIds) {
+        cache.put(key, cache.generation(), body(), "text/html", productIds);
+    }
+
+    private static byte[] body() {
+        return "<html></html>".getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Product product(int id, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setBrand("Acme");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStockQuantity(stock);
+        product.setProductAvailable(true);
+        product.setReleaseDate(LocalDate.of(2026, 1, 1));
+        product.setCategories(List.of("laptop"));
+        return product;
+    }
+}
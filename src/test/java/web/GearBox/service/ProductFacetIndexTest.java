@@ -0,0 +1,123 @@
+package web.GearBox.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import web.GearBox.model.FacetCounts;
+import web.GearBox.model.FacetQuery;
+import web.GearBox.model.PriceRange;
+import web.GearBox.model.Product;
+import web.GearBox.model.ReleaseWindow;
+
+class ProductFacetIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 1, 1);
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        index = new ProductFacetIndex(20);
+        index.rebuild(List.of(
+            product(1, "Acme", "10.00", 5, true, 10, "Laptop"),
+            product(2, "Acme", "40.00", 0, true, 100, "Laptop", "Gaming"),
+            product(3, "Zeta", "10.00", 3, true, 400, "Mouse"),
+            product(4, "Zeta", "60.00", 2, true, 10, "Laptop", "Gaming"),
+            product(5, "Acme", "10.00", 9, false, 200, "Mouse")));
+    }
+
+    @Test
+    void unfilteredCountsCoverTheWholeCatalog() {
+        FacetCounts counts = search(FacetQuery.NONE);
+        assertEquals(5, counts.total());
+        assertEquals(Map.of("Acme", 3, "Zeta", 2), counts.brands());
+        assertEquals(Map.of("Gaming", 2, "Laptop", 3, "Mouse", 2), counts.categories());
+        assertEquals(3, counts.prices().get(PriceRange.UNDER_25));
+        // Product 2 has no stock and product 5 is unavailable
+        assertEquals(3, counts.inStock());
+        assertEquals(2, counts.released().get(ReleaseWindow.LAST_30_DAYS));
+        assertEquals(4, counts.released().get(ReleaseWindow.LAST_YEAR));
+    }
+
+    // The brand facet ignores the brand filter, every other facet applies it
+    @Test
+    void brandFacetExcludesItsOwnFilter() {
+        FacetCounts counts = search(new FacetQuery(List.of(), List.of("Acme"), null, false, null));
+        assertEquals(3, counts.total());
+        assertEquals(Map.of("Acme", 3, "Zeta", 2), counts.brands());
+        assertEquals(2, counts.prices().get(PriceRange.UNDER_25));
+        assertEquals(1, counts.prices().get(PriceRange.FROM_25));
+        assertEquals(0, counts.prices().get(PriceRange.FROM_50));
+        assertEquals(1, counts.inStock());
+        assertEquals(Map.of("Gaming", 1, "Laptop", 2, "Mouse", 1), counts.categories());
+    }
+
+    @Test
+    void priceAndStockFacetsExcludeTheirOwnFilters() {
+        FacetCounts counts = search(new FacetQuery(List.of(), List.of(), PriceRange.UNDER_25, true, null));
+        assertEquals(2, counts.total());
+        // In stock, any price
+        assertEquals(2, counts.prices().get(PriceRange.UNDER_25));
+        assertEquals(0, counts.prices().get(PriceRange.FROM_25));
+        assertEquals(1, counts.prices().get(PriceRange.FROM_50));
+        // Under 25, in stock or not
+        assertEquals(2, counts.inStock());
+        assertEquals(Map.of("Acme", 1, "Zeta", 1), counts.brands());
+    }
+
+    @Test
+    void releaseFacetExcludesItsOwnFilter() {
+        FacetCounts counts = search(new FacetQuery(List.of(), List.of(), null, false, ReleaseWindow.LAST_30_DAYS));
+        assertEquals(2, counts.total());
+        assertEquals(2, counts.released().get(ReleaseWindow.LAST_30_DAYS));
+        assertEquals(2, counts.released().get(ReleaseWindow.LAST_90_DAYS));
+        assertEquals(4, counts.released().get(ReleaseWindow.LAST_YEAR));
+        assertEquals(Map.of("Acme", 1, "Zeta", 1), counts.brands());
+    }
+
+    // Categories combine with AND, so their counts are taken on the filtered result
+    @Test
+    void categoriesNarrowEveryCount() {
+        FacetCounts counts = search(FacetQuery.ofCategories(List.of("Laptop", "Gaming")));
+        assertEquals(2, counts.total());
+        assertEquals(Map.of("Gaming", 2, "Laptop", 2, "Mouse", 0), counts.categories());
+        assertEquals(Map.of("Acme", 1, "Zeta", 1), counts.brands());
+        assertEquals(1, counts.inStock());
+    }
+
+    @Test
+    void sellingTheLastUnitsTakesTheProductOutOfStock() {
+        index.stockSold(new int[] {3}, new int[] {2});
+        assertFalse(index.anyOutOfStock(new int[] {3}));
+        index.stockSold(new int[] {3}, new int[] {1});
+        assertTrue(index.anyOutOfStock(new int[] {1, 3}));
+        assertEquals(2, search(FacetQuery.NONE).inStock());
+    }
+
+    private FacetCounts search(FacetQuery query) {
+        return index.search(query, TODAY).counts();
+    }
+
+    private static Product product(int id, String brand, String price, int stock, boolean available, int daysOld,
+                                   String... categories) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(brand + " " + id);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(stock);
+        product.setProductAvailable(available);
+        product.setReleaseDate(TODAY.minusDays(daysOld));
+        product.setCategories(List.of(categories));
+        return product;
+    }
+}
@@ -0,0 +1,34 @@
+package web.GearBox.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SearchTextTest {
+
+    // Every dotted and dotless i folds to the same letter, whichever way it was cased
+    @Test
+    void turkishIFoldsTheSameInEitherCase() {
+        assertEquals("istanbul", SearchText.fold("İSTANBUL"));
+        assertEquals("istanbul", SearchText.fold("ISTANBUL"));
+        assertEquals("istanbul", SearchText.fold("ıstanbul"));
+        assertEquals("isik", SearchText.fold("IŞIK"));
+        assertEquals(SearchText.fold("dizüstü"), SearchText.fold("DİZÜSTÜ"));
+    }
+
+    @Test
+    void accentsAreDropped() {
+        assertEquals("cafe creme", SearchText.fold("Café Crème"));
+        assertEquals("kulaklik", SearchText.fold("Kulaklık"));
+        assertEquals("gozluk", SearchText.fold("GÖZLÜK"));
+    }
+
+    @Test
+    void tokensSplitOnAnythingButLettersAndDigits() {
+        assertEquals(List.of("unlu", "kulaklik", "2", "0"), SearchText.tokens("  Ünlü-Kulaklık, 2.0 "));
+        assertEquals(List.of(), SearchText.tokens(" - "));
+        assertEquals(List.of(), SearchText.tokens(null));
+    }
+}
@@ -0,0 +1,86 @@
+package web.GearBox.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import web.GearBox.model.Product;
+import web.GearBox.model.Suggestion;
+
+class SuggestionIndexTest {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        ResourceBundleMessageSource messages = new ResourceBundleMessageSource();
+        messages.setBasename("messages");
+        messages.setDefaultEncoding("UTF-8");
+        messages.setFallbackToSystemLocale(false);
+        index = new SuggestionIndex(new CategoryRegistry(messages));
+        index.rebuild(List.of(
+            product(1, "Laptop Stand", "Lapco", "laptop"),
+            product(2, "Gaming Laptop", "Acme", "laptop"),
+            product(3, "Acme Headphone", "Acme", "headphone")));
+    }
+
+    // Categories, then brands, then products; with no popularity yet shorter texts come first
+    @Test
+    void ranksByTypeThenPopularity() {
+        assertEquals(List.of("Laptop", "Lapco", "Laptop Stand", "Gaming Laptop"), texts("lap", Locale.ENGLISH, 10));
+        index.recordView(2);
+        assertEquals(List.of("Laptop", "Lapco", "Gaming Laptop", "Laptop Stand"), texts("lap", Locale.ENGLISH, 10));
+    }
+
+    @Test
+    void limitKeepsTheBestEntries() {
+        assertEquals(List.of("Laptop", "Lapco"), texts("LAP", Locale.ENGLISH, 2));
+    }
+
+    // A unit sold outweighs a handful of views
+    @Test
+    void salesCountMoreThanViews() {
+        for (int i = 0; i < 5; i++) {
+            index.recordView(1);
+        }
+        index.stockSold(new int[] {2}, new int[] {1});
+        assertEquals(List.of("Gaming Laptop", "Laptop Stand"), texts("laptop", Locale.ENGLISH, 10).subList(1, 3));
+    }
+
+    // Every word start of every label is a key, in folded form, and labels come back in the shopper's locale
+    @Test
+    void matchesTranslatedCategoryLabels() {
+        assertEquals(List.of("Dizüstü Bilgisayar"), texts("bilgi", TURKISH, 10));
+        assertEquals(List.of("Dizüstü Bilgisayar"), texts("DİZUSTU", TURKISH, 10));
+        assertEquals(List.of("Kulaklık"), texts("kulak", TURKISH, 10));
+        assertEquals(List.of("Laptop"), texts("bilgi", Locale.ENGLISH, 10));
+    }
+
+    @Test
+    void deletedProductsAndTheirEmptyBrandsDisappear() {
+        index.productDeleted(1);
+        assertEquals(List.of("Laptop", "Gaming Laptop"), texts("lap", Locale.ENGLISH, 10));
+    }
+
+    private List<String> texts(String text, Locale locale, int limit) {
+        return index.suggest(text, locale, limit).stream().map(Suggestion::text).toList();
+    }
+
+    private static Product product(int id, String name, String brand, String category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setCategories(List.of(category));
+        return product;
+    }
+}
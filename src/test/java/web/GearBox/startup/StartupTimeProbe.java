@@ -0,0 +1,124 @@
+package web.GearBox.startup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Starts the packaged app as a fresh JVM and measures the time to the first 200 on / and to readiness,
+// once as a plain jar and once with the AOT initializers and the AppCDS archive built by the prod profile.
+//   java -cp <test classpath> web.GearBox.startup.StartupTimeProbe <app dir> <jar name> <report file>
+// Runs per mode: -Dstartup.runs (default 3)
+public final class StartupTimeProbe {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private StartupTimeProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path appDir = Path.of(args[0]);
+        Path jar = appDir.resolve(args[1]);
+        Path report = Path.of(args[2]);
+        int runs = Integer.getInteger("startup.runs", 3);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<Mode> modes = new ArrayList<>();
+        modes.add(new Mode("jar", List.of()));
+        Path archive = appDir.resolve("application.jsa");
+        if (Files.exists(archive)) {
+            modes.add(new Mode("aot+cds", List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true")));
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-8s %6s %18s %18s", "mode", "run", "first / 200 (ms)", "ready (ms)"));
+        for (Mode mode : modes) {
+            List<Long> firstResponses = new ArrayList<>();
+            List<Long> readies = new ArrayList<>();
+            for (int run = 1; run <= runs; run++) {
+                long[] result = measure(java, jar, mode.jvmArgs());
+                firstResponses.add(result[0]);
+                readies.add(result[1]);
+                lines.add(String.format("%-8s %6d %18d %18d", mode.name(), run, result[0], result[1]));
+            }
+            lines.add(String.format("%-8s %6s %18d %18d", mode.name(), "median", median(firstResponses), median(readies)));
+        }
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.write(report, lines);
+        PrintStream out = System.out;
+        out.println("Startup report (" + jar.getFileName() + ", " + runs + " runs per mode):");
+        lines.forEach(out::println);
+    }
+
+    // Milliseconds from process start to the first 200 on / and to readiness UP
+    private static long[] measure(String java, Path jar, List<String> jvmArgs) throws Exception {
+        int port = freePort();
+        int managementPort = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.add("-Dspring.profiles.active=prod");
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.add("--management.server.port=" + managementPort);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        URI home = URI.create("http://localhost:" + port + "/");
+        URI readiness = URI.create("http://127.0.0.1:" + managementPort + "/actuator/health/readiness");
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        try {
+            long firstResponse = awaitOk(client, home, process, started);
+            long ready = awaitOk(client, readiness, process, started);
+            return new long[] {firstResponse, ready};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long awaitOk(HttpClient client, URI uri, Process process, long started) throws Exception {
+        long deadline = started + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with status " + process.exitValue());
+            }
+            try {
+                HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).build();
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return (System.nanoTime() - started) / 1_000_000;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No 200 from " + uri + " within " + TIMEOUT);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Mode(String name, List<String> jvmArgs) {
+    }
+}
@@ -0,0 +1,138 @@
+package web.GearBox.support;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.context.ApplicationContext;
+
+import web.GearBox.model.ImageSize;
+import web.GearBox.model.ImageUpload;
+import web.GearBox.model.Product;
+import web.GearBox.repository.ProductRepo;
+import web.GearBox.service.CategoryRegistry;
+import web.GearBox.service.ImageDerivativeService;
+import web.GearBox.service.ProductImageService;
+import web.GearBox.service.ProductService;
+
+// Fills a running context with a deterministic synthetic catalog for benchmarks and load tests
+public final class CatalogSeeder {
+
+    public static final String[] KEYWORDS = {"wireless", "pro", "gaming laptop", "noise cancelling", "kids"};
+
+    private static final String[] ADJECTIVES = {"Wireless", "Pro", "Ultra", "Compact", "Gaming", "Smart", "Classic", "Kids"};
+    private static final String[] NOUNS = {"Laptop", "Headphones", "Phone", "Speaker", "Watch", "Jacket", "Robot", "Camera"};
+    private static final String[] BRANDS = {"Acme", "Nordic", "Zenith", "Orbit", "Kestrel", "Lumen"};
+    private static final String[] FEATURES = {"noise cancelling", "long battery life", "water resistant", "fast charging",
+        "lightweight", "bluetooth", "4k display", "soft cotton"};
+
+    private static final int BATCH_SIZE = 500;
+
+    private CatalogSeeder() {
+    }
+
+    // Returns the generated product ids; the first imageCount products also get a JPEG upload
+    public static int[] seed(ApplicationContext context, int productCount, int imageCount, long seed) {
+        ProductRepo repo = context.getBean(ProductRepo.class);
+        Random random = new Random(seed);
+        int[] ids = new int[productCount];
+        int next = 0;
+        List<Product> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < productCount; i++) {
+            batch.add(product(random, i));
+            if (batch.size() == BATCH_SIZE || i == productCount - 1) {
+                for (Product saved : repo.saveAll(batch)) {
+                    ids[next++] = saved.getId();
+                }
+                batch.clear();
+            }
+        }
+        context.getBean(ProductService.class).rebuildIndexes();
+
+        ProductImageService imageService = context.getBean(ProductImageService.class);
+        int withImages = Math.min(imageCount, productCount);
+        for (int i = 0; i < withImages; i++) {
+            try (ImageUpload upload = imageService.stage(new ByteArrayInputStream(jpeg(random, 1600, 1200)), "seed.jpg")) {
+                imageService.saveImage(ids[i], upload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (withImages > 0) {
+            awaitDerivative(context.getBean(ImageDerivativeService.class), ids[withImages - 1]);
+        }
+        return ids;
+    }
+
+    private static Product product(Random random, int index) {
+        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        Product product = new Product();
+        product.setName(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun + " " + index);
+        product.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+        product.setDescription("A " + noun.toLowerCase() + " with " + FEATURES[random.nextInt(FEATURES.length)]
+            + " and " + FEATURES[random.nextInt(FEATURES.length)] + ".");
+        product.setPrice(BigDecimal.valueOf(500 + random.nextInt(200_000), 2));
+        List<String> categories = new ArrayList<>();
+        categories.add(CategoryRegistry.KEYS.get(random.nextInt(CategoryRegistry.KEYS.size())));
+        if (random.nextBoolean()) {
+            String second = CategoryRegistry.KEYS.get(random.nextInt(CategoryRegistry.KEYS.size()));
+            if (!categories.contains(second)) {
+                categories.add(second);
+            }
+        }
+        product.setCategories(categories);
+        product.setReleaseDate(LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1800)));
+        product.setProductAvailable(true);
+        product.setStockQuantity(1_000_000);
+        return product;
+    }
+
+    private static byte[] jpeg(Random random, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)),
+                width, height, new Color(random.nextInt(0xFFFFFF))));
+            g.fillRect(0, 0, width, height);
+            for (int i = 0; i < 200; i++) {
+                g.setColor(new Color(random.nextInt(0xFFFFFF)));
+                g.fillOval(random.nextInt(width), random.nextInt(height), 20 + random.nextInt(200), 20 + random.nextInt(200));
+            }
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "jpeg", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Derivatives are generated asynchronously, wait so measurements see the steady state
+    private static void awaitDerivative(ImageDerivativeService derivativeService, int productId) {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (derivativeService.getDerivativeInfo(productId, ImageSize.MEDIUM) == null
+                && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}